@@ -0,0 +1,114 @@
+package ubb.scs.map.index;
+
+import ubb.scs.map.model.Identifiable;
+import ubb.scs.map.repository.RepositoryIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * Sorted index over a day of elements with int ids.
+ * Every element is one (day, id) pair packed into a long, kept in a skip list ordered by day and then by id,
+ * so the elements of a range of days are found with one logarithmic seek followed by a sequential walk.
+ * The number of elements per day is kept next to it, so counting does not walk the elements.
+ * The indexed day of every id is remembered, so an element whose date was changed in place is still
+ * removed from the day it was indexed under.
+ * Elements without a day are not indexed.
+ * @param <T> - type of the indexed elements
+ */
+public class DateIndex<T extends Identifiable<Integer>> implements RepositoryIndex<T> {
+
+    private final ToIntFunction<T> dayOf;
+    private final int noDay;
+    private final ConcurrentSkipListSet<Long> entries = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListMap<Integer, Integer> counts = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Integer> days = new ConcurrentHashMap<>();
+
+    /**
+     * @param dayOf - the indexed day of an element, e.g. ComputerRepairRequest::getEpochDay
+     * @param noDay - value returned by dayOf for elements which are not indexed
+     */
+    public DateIndex(ToIntFunction<T> dayOf, int noDay) {
+        this.dayOf = dayOf;
+        this.noDay = noDay;
+    }
+
+    @Override
+    public void added(T el) {
+        int id = el.getID();
+        int day = dayOf.applyAsInt(el);
+        Integer previous = day != noDay ? days.put(id, day) : days.remove(id);
+        if (previous != null && previous != day)
+            unindex(previous, id);
+        if (day != noDay && entries.add(key(day, id)))
+            counts.merge(day, 1, Integer::sum);
+    }
+
+    @Override
+    public void removed(T el) {
+        int id = el.getID();
+        Integer day = days.remove(id);
+        if (day != null)
+            unindex(day, id);
+    }
+
+    private void unindex(int day, int id) {
+        if (entries.remove(key(day, id)))
+            counts.merge(day, -1, (count, delta) -> count + delta == 0 ? null : count + delta);
+    }
+
+    /**
+     * @param fromDay - first day of the range
+     * @param toDay - last day of the range, inclusive
+     * @return ids of the elements of the range, ordered by day and then by id.
+     * An id whose day is being changed concurrently is only returned under the day it is currently indexed under
+     */
+    public List<Integer> idsBetween(int fromDay, int toDay) {
+        List<Integer> ids = new ArrayList<>();
+        if (fromDay > toDay)
+            return ids;
+        for (long entry : entries.subSet(key(fromDay, 0), true, key(toDay, -1), true)) {
+            int id = (int) entry;
+            Integer day = days.get(id);
+            if (day != null && day == (int) (entry >> 32))
+                ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * @return number of elements of the day
+     */
+    public int count(int day) {
+        return counts.getOrDefault(day, 0);
+    }
+
+    /**
+     * @param fromDay - first day of the range
+     * @param toDay - last day of the range, inclusive
+     * @return read-only live view of the number of elements of each day of the range which has any
+     */
+    public NavigableMap<Integer, Integer> countsBetween(int fromDay, int toDay) {
+        if (fromDay > toDay)
+            return Collections.emptyNavigableMap();
+        return Collections.unmodifiableNavigableMap(counts.subMap(fromDay, true, toDay, true));
+    }
+
+    /**
+     * @return number of indexed elements
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static long key(int day, int id) {
+        return (long) day << 32 | (id & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,30 @@
+package ubb.scs.map.index;
+
+/**
+ * Id of a matching element with its relevance score, higher is better
+ */
+public class SearchHit {
+    private final int id;
+    private final double score;
+
+    public SearchHit(int id, double score) {
+        this.id = id;
+        this.score = score;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHit{" +
+                "id=" + id +
+                ", score=" + score +
+                '}';
+    }
+}
@@ -0,0 +1,264 @@
+package ubb.scs.map.index;
+
+import ubb.scs.map.model.Identifiable;
+import ubb.scs.map.repository.RepositoryIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory inverted index over text fields of elements with int ids.
+ * Every term maps to a posting list of the ids containing it, sorted by id, with the number of occurrences.
+ * AND queries intersect the posting lists starting from the shortest one, OR queries merge them.
+ * Hits are ranked by tf-idf: rare terms and repeated terms weigh more.
+ * The terms of every id are remembered, so an element whose text was changed in place is still
+ * removed from the posting lists it was indexed in.
+ * All changes take the same write lock, so writers of a repository with a TextIndex are serialized.
+ * @param <T> - type of the indexed elements
+ */
+public class TextIndex<T extends Identifiable<Integer>> implements RepositoryIndex<T> {
+
+    /**
+     * How the terms of a query are combined
+     */
+    public enum Operator {
+        AND,
+        OR
+    }
+
+    private final List<Function<T, String>> fields;
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Integer, String[]> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param fields - the indexed text of an element, e.g. ComputerRepairRequest::getProblemDescription
+     */
+    @SafeVarargs
+    public TextIndex(Function<T, String>... fields) {
+        List<Function<T, String>> indexed = new ArrayList<>(fields.length);
+        for (Function<T, String> field : fields)
+            indexed.add(field);
+        this.fields = List.copyOf(indexed);
+    }
+
+    @Override
+    public void added(T el) {
+        Map<String, Integer> terms = terms(el);
+        int id = el.getID();
+        lock.writeLock().lock();
+        try {
+            String[] previous = terms.isEmpty() ? documents.remove(id) : documents.put(id, terms.keySet().toArray(new String[0]));
+            if (previous != null) {
+                for (String term : previous) {
+                    if (!terms.containsKey(term))
+                        unindex(term, id);
+                }
+            }
+            for (Map.Entry<String, Integer> term : terms.entrySet())
+                postings.computeIfAbsent(term.getKey(), key -> new PostingList()).put(id, term.getValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removed(T el) {
+        int id = el.getID();
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.remove(id);
+            if (previous != null) {
+                for (String term : previous)
+                    unindex(term, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unindex(String term, int id) {
+        PostingList list = postings.get(term);
+        if (list != null && list.remove(id) && list.size == 0)
+            postings.remove(term);
+    }
+
+    /**
+     * @param query - words to look for, normalized like the indexed text
+     * @param operator - AND returns the ids containing every word, OR the ids containing any of them
+     * @param limit - maximum number of hits
+     * @return the best hits, highest score first
+     */
+    public List<SearchHit> search(String query, Operator operator, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokens(query)));
+        if (terms.isEmpty() || limit <= 0)
+            return List.of();
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    if (operator == Operator.AND)
+                        return List.of();
+                    continue;
+                }
+                lists.add(list);
+            }
+            return operator == Operator.AND ? intersect(lists, limit) : union(lists, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of distinct indexed terms
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SearchHit> intersect(List<PostingList> lists, int limit) {
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        PostingList shortest = lists.get(0);
+        TopHits top = new TopHits(limit);
+        int[] cursors = new int[lists.size()];
+        candidates:
+        for (int i = 0; i < shortest.size; i++) {
+            int id = shortest.ids[i];
+            double score = weight(shortest, i);
+            for (int l = 1; l < lists.size(); l++) {
+                PostingList list = lists.get(l);
+                int found = list.seek(id, cursors[l]);
+                if (found >= list.size) {
+                    break candidates;
+                }
+                cursors[l] = found;
+                if (list.ids[found] != id)
+                    continue candidates;
+                score += weight(list, found);
+            }
+            top.offer(id, score);
+        }
+        return top.sorted();
+    }
+
+    private List<SearchHit> union(List<PostingList> lists, int limit) {
+        Map<Integer, double[]> scores = new HashMap<>();
+        for (PostingList list : lists) {
+            for (int i = 0; i < list.size; i++)
+                scores.computeIfAbsent(list.ids[i], id -> new double[1])[0] += weight(list, i);
+        }
+        TopHits top = new TopHits(limit);
+        scores.forEach((id, score) -> top.offer(id, score[0]));
+        return top.sorted();
+    }
+
+    private double weight(PostingList list, int index) {
+        double idf = Math.log(1 + (double) documents.size() / list.size);
+        return (1 + Math.log(list.frequencies[index])) * idf;
+    }
+
+    private Map<String, Integer> terms(T el) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (Function<T, String> field : fields) {
+            for (String token : Tokenizer.tokens(field.apply(el)))
+                terms.merge(token, 1, Integer::sum);
+        }
+        return terms;
+    }
+
+    /**
+     * Ids sorted ascending with the term frequency of each one.
+     * Ids usually grow, so adding one is an append; other positions are found by binary search.
+     */
+    private static final class PostingList {
+        private int[] ids = new int[2];
+        private int[] frequencies = new int[2];
+        private int size = 0;
+
+        /**
+         * @return whether the id was already present, its frequency is then replaced
+         */
+        boolean put(int id, int frequency) {
+            int index = size > 0 && ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                return true;
+            }
+            index = -(index + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            ids[index] = id;
+            frequencies[index] = frequency;
+            size++;
+            return false;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0)
+                return false;
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * Galloping search for the first position at or after from holding an id not smaller than the target
+         */
+        int seek(int target, int from) {
+            int bound = 1;
+            while (from + bound < size && ids[from + bound] < target)
+                bound <<= 1;
+            int index = Arrays.binarySearch(ids, from + (bound >> 1), Math.min(size, from + bound + 1), target);
+            return index >= 0 ? index : -(index + 1);
+        }
+    }
+
+    /**
+     * Keeps the best hits seen so far in a bounded min-heap
+     */
+    private static final class TopHits {
+        private final int limit;
+        private final PriorityQueue<SearchHit> heap;
+
+        TopHits(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1024) + 1,
+                    (a, b) -> a.getScore() != b.getScore() ? Double.compare(a.getScore(), b.getScore()) : Integer.compare(b.getId(), a.getId()));
+        }
+
+        void offer(int id, double score) {
+            if (heap.size() < limit) {
+                heap.add(new SearchHit(id, score));
+            } else if (score > heap.peek().getScore()) {
+                heap.poll();
+                heap.add(new SearchHit(id, score));
+            }
+        }
+
+        List<SearchHit> sorted() {
+            List<SearchHit> hits = new ArrayList<>(heap);
+            hits.sort((a, b) -> a.getScore() != b.getScore() ? Double.compare(b.getScore(), a.getScore()) : Integer.compare(a.getId(), b.getId()));
+            return hits;
+        }
+    }
+}
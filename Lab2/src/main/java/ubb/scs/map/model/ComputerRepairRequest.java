@@ -1,9 +1,22 @@
 package ubb.scs.map.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.time.DateTimeException;
+import java.time.LocalDate;
 
 public  class ComputerRepairRequest implements Identifiable<Integer>, Serializable {
 
+    /**
+     * Value of {@link #getEpochDay()} when the date is not a dd/MM/yyyy date
+     */
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    /**
+     * Identifier of the class before the epoch day was added, so previously serialized requests still load
+     */
+    private static final long serialVersionUID = -2813851769521137569L;
 
     private int ID;
     private String ownerName;
@@ -12,6 +25,7 @@ public  class ComputerRepairRequest implements Identifiable<Integer>, Serializab
     private String model;
     private  String date;
     private  String problemDescription;
+    private transient int epochDay;
 
     public ComputerRepairRequest(){
 
@@ -21,6 +35,7 @@ public  class ComputerRepairRequest implements Identifiable<Integer>, Serializab
         this.phoneNumber = "";
         this.model = "";
         this.date ="";
+        this.epochDay = NO_DATE;
         this.problemDescription = "";
     }
     public ComputerRepairRequest(int ID, String ownerName, String ownerAddress, String phoneNumber, String model, String date, String problemDescription){
@@ -30,6 +45,7 @@ public  class ComputerRepairRequest implements Identifiable<Integer>, Serializab
         this.phoneNumber = phoneNumber;
         this.model = model;
         this.date =date;
+        this.epochDay = parseEpochDay(date);
         this.problemDescription = problemDescription;
     }
 
@@ -74,6 +90,21 @@ public  class ComputerRepairRequest implements Identifiable<Integer>, Serializab
 
     public void setDate(String date) {
         this.date = date;
+        this.epochDay = parseEpochDay(date);
+    }
+
+    /**
+     * @return the date as days since 1970-01-01, parsed once when the date is set, NO_DATE if it is not a dd/MM/yyyy date
+     */
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    /**
+     * @return the date, null if it is not a dd/MM/yyyy date
+     */
+    public LocalDate getLocalDate() {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
     }
 
     public String getProblemDescription() {
@@ -91,6 +122,40 @@ public  class ComputerRepairRequest implements Identifiable<Integer>, Serializab
         ID = id;
     }
 
+    /**
+     * @return the epoch day of a dd/MM/yyyy date, NO_DATE if the text is not exactly in that form
+     */
+    public static int parseEpochDay(String date) {
+        if (date == null || date.length() != 10 || date.charAt(2) != '/' || date.charAt(5) != '/')
+            return NO_DATE;
+        int day = digits(date, 0, 2);
+        int month = digits(date, 3, 5);
+        int year = digits(date, 6, 10);
+        if (day < 0 || month < 0 || year < 0)
+            return NO_DATE;
+        try {
+            return (int) LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return NO_DATE;
+        }
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        epochDay = parseEpochDay(date);
+    }
+
     @Override
     public String toString() {
         return
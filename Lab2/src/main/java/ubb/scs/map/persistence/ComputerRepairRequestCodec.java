@@ -0,0 +1,277 @@
+package ubb.scs.map.persistence;
+
+import ubb.scs.map.model.ComputerRepairRequest;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Versioned binary encoding of ComputerRepairRequest, replacing Java serialization.
+ * Layout of format 1: [version byte][flags byte][zigzag varint id][owner name][owner address][phone number]
+ * [model][date][problem description]. Strings are a varint byte length followed by UTF-8 bytes.
+ * A date written as dd/MM/yyyy is stored as a zigzag varint epoch day (flag bit 0), any other date as a string.
+ * A null string is written as an empty one and marked by a flag bit, bits 1 to 6 in the order of the fields,
+ * so decoding gives back null; records written before these bits existed decode the same as before.
+ * Records are self-delimiting, so collections are a varint count followed by the records.
+ */
+public class ComputerRepairRequestCodec implements RecordSerializer<ComputerRepairRequest> {
+
+    private static final byte VERSION = 1;
+    private static final int FLAG_EPOCH_DAY = 1;
+    private static final int OWNER_NAME = 1;
+    private static final int OWNER_ADDRESS = 2;
+    private static final int PHONE_NUMBER = 3;
+    private static final int MODEL = 4;
+    private static final int DATE = 5;
+    private static final int PROBLEM_DESCRIPTION = 6;
+    /**
+     * Smallest encoded record: version, flags, a one byte id and six one byte fields
+     */
+    private static final int MIN_RECORD_SIZE = 9;
+    private static final ThreadLocal<byte[]> scratch = ThreadLocal.withInitial(() -> new byte[256]);
+
+    @Override
+    public byte[] serialize(ComputerRepairRequest value) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(value));
+        encode(value, buffer);
+        return buffer.array();
+    }
+
+    @Override
+    public ComputerRepairRequest deserialize(ByteBuffer buffer) {
+        return decode(buffer);
+    }
+
+    /**
+     * @return the exact number of bytes {@link #encode} writes for the request
+     */
+    public int encodedSize(ComputerRepairRequest request) {
+        int size = 2 + varintSize(zigzag(request.getID()));
+        size += stringSize(request.getOwnerName());
+        size += stringSize(request.getOwnerAddress());
+        size += stringSize(request.getPhoneNumber());
+        size += stringSize(request.getModel());
+        int day = request.getEpochDay();
+        size += day == ComputerRepairRequest.NO_DATE ? stringSize(request.getDate()) : varintSize(zigzag(day));
+        size += stringSize(request.getProblemDescription());
+        return size;
+    }
+
+    /**
+     * Writes the request at the position of the buffer, which must have {@link #encodedSize} bytes remaining
+     */
+    public void encode(ComputerRepairRequest request, ByteBuffer buffer) {
+        int day = request.getEpochDay();
+        int flags = day == ComputerRepairRequest.NO_DATE ? 0 : FLAG_EPOCH_DAY;
+        flags |= nullFlag(request.getOwnerName(), OWNER_NAME) | nullFlag(request.getOwnerAddress(), OWNER_ADDRESS)
+                | nullFlag(request.getPhoneNumber(), PHONE_NUMBER) | nullFlag(request.getModel(), MODEL)
+                | nullFlag(request.getDate(), DATE) | nullFlag(request.getProblemDescription(), PROBLEM_DESCRIPTION);
+        buffer.put(VERSION);
+        buffer.put((byte) flags);
+        putVarint(buffer, zigzag(request.getID()));
+        putString(buffer, request.getOwnerName());
+        putString(buffer, request.getOwnerAddress());
+        putString(buffer, request.getPhoneNumber());
+        putString(buffer, request.getModel());
+        if (day == ComputerRepairRequest.NO_DATE)
+            putString(buffer, request.getDate());
+        else
+            putVarint(buffer, zigzag(day));
+        putString(buffer, request.getProblemDescription());
+    }
+
+    /**
+     * Reads one request from the position of the buffer
+     * @throws IllegalArgumentException if the bytes are not a request of a known format
+     */
+    public ComputerRepairRequest decode(ByteBuffer buffer) {
+        try {
+            byte version = buffer.get();
+            if (version != VERSION)
+                throw new IllegalArgumentException("Unsupported ComputerRepairRequest format " + version);
+            int flags = buffer.get();
+            int id = (int) unzigzag(getVarint(buffer));
+            String ownerName = getString(buffer, flags, OWNER_NAME);
+            String ownerAddress = getString(buffer, flags, OWNER_ADDRESS);
+            String phoneNumber = getString(buffer, flags, PHONE_NUMBER);
+            String model = getString(buffer, flags, MODEL);
+            String date = (flags & FLAG_EPOCH_DAY) != 0 ? formatDate(unzigzag(getVarint(buffer))) : getString(buffer, flags, DATE);
+            String problemDescription = getString(buffer, flags, PROBLEM_DESCRIPTION);
+            return new ComputerRepairRequest(id, ownerName, ownerAddress, phoneNumber, model, date, problemDescription);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated ComputerRepairRequest record", e);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date in ComputerRepairRequest record", e);
+        }
+    }
+
+    /**
+     * Encodes a whole collection into one buffer, ready to be read
+     */
+    public ByteBuffer encodeAll(Collection<ComputerRepairRequest> requests) {
+        int size = varintSize(requests.size());
+        for (ComputerRepairRequest request : requests)
+            size += encodedSize(request);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        putVarint(buffer, requests.size());
+        for (ComputerRepairRequest request : requests)
+            encode(request, buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes a collection written by {@link #encodeAll}
+     * @throws IllegalArgumentException if the bytes are not a collection of requests of a known format
+     */
+    public List<ComputerRepairRequest> decodeAll(ByteBuffer buffer) {
+        long count;
+        try {
+            count = getVarint(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated ComputerRepairRequest collection", e);
+        }
+        if (count < 0 || count > buffer.remaining() / MIN_RECORD_SIZE)
+            throw new IllegalArgumentException("Invalid ComputerRepairRequest count " + count);
+        List<ComputerRepairRequest> requests = new ArrayList<>((int) count);
+        for (int i = 0; i < count; i++)
+            requests.add(decode(buffer));
+        return requests;
+    }
+
+    private static int nullFlag(String text, int field) {
+        return text == null ? 1 << field : 0;
+    }
+
+    private static String formatDate(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        char[] text = {
+                (char) ('0' + date.getDayOfMonth() / 10), (char) ('0' + date.getDayOfMonth() % 10), '/',
+                (char) ('0' + date.getMonthValue() / 10), (char) ('0' + date.getMonthValue() % 10), '/',
+                (char) ('0' + date.getYear() / 1000), (char) ('0' + date.getYear() / 100 % 10),
+                (char) ('0' + date.getYear() / 10 % 10), (char) ('0' + date.getYear() % 10)};
+        return new String(text);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80)
+                length++;
+            else if (c < 0x800)
+                length += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c))
+                length++;
+            else
+                length += 3;
+        }
+        return length;
+    }
+
+    private static int stringSize(String text) {
+        int length = text == null ? 0 : utf8Length(text);
+        return varintSize(length) + length;
+    }
+
+    /**
+     * Writes the UTF-8 bytes directly into the buffer, unpaired surrogates are written as '?'
+     * like String.getBytes does, null is written as the empty string and marked in the flags
+     */
+    private static void putString(ByteBuffer buffer, String text) {
+        if (text == null)
+            text = "";
+        putVarint(buffer, utf8Length(text));
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer buffer, int flags, int field) {
+        String text = getString(buffer);
+        return (flags & 1 << field) != 0 ? null : text;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        long encodedLength = getVarint(buffer);
+        if (encodedLength < 0 || encodedLength > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid string length " + encodedLength);
+        int length = (int) encodedLength;
+        if (length > buffer.remaining())
+            throw new BufferUnderflowException();
+        if (buffer.hasArray()) {
+            String text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return text;
+        }
+        byte[] bytes = scratch.get();
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+            scratch.set(bytes);
+        }
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,16 @@
+package ubb.scs.map.persistence;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts repository elements to and from the bytes stored in the log and in snapshots
+ * @param <T> - type of the elements
+ */
+public interface RecordSerializer<T> {
+    byte[] serialize(T value);
+
+    /**
+     * @param buffer - holds exactly one serialized element between its position and its limit
+     */
+    T deserialize(ByteBuffer buffer);
+}
@@ -0,0 +1,71 @@
+package ubb.scs.map.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Snapshot file holding every element of a repository.
+ * Layout: [magic][format version][element count] followed by one [length][bytes] record per element.
+ * A snapshot is written to a temporary file, forced to disk and then renamed, so a snapshot file
+ * that exists is always complete. It is read back through a memory mapping, without copying the file.
+ */
+public final class Snapshot {
+
+    private static final int MAGIC = 0x534E4150;
+    private static final int FORMAT_VERSION = 1;
+
+    private Snapshot() {
+    }
+
+    public static <T> void write(Path file, Collection<T> elements, RecordSerializer<T> serializer) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(elements.size());
+            for (T element : elements) {
+                byte[] bytes = serializer.serialize(element);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return the number of elements read
+     */
+    public static <T> int read(Path file, RecordSerializer<T> serializer, Consumer<T> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC)
+                throw new IOException(file + " is not a snapshot");
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION)
+                throw new IOException("Unsupported snapshot format " + version + " in " + file);
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                ByteBuffer record = buffer.slice(buffer.position(), length);
+                consumer.accept(serializer.deserialize(record));
+                buffer.position(buffer.position() + length);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package ubb.scs.map.persistence;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of repository changes with group commit.
+ * Each record is written as [payload length][CRC32 of op and payload][op][payload].
+ * {@link #append} only writes to the file, {@link #sync} waits until the record is on disk:
+ * the first waiting thread forces the file for every record written so far, the others
+ * waiting behind it are released by that single fsync.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger();
+    static final int HEADER_SIZE = 9;
+
+    /**
+     * Receives the records of a log being replayed
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void accept(byte op, ByteBuffer payload);
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private long written;
+    private long durable;
+    private boolean syncing = false;
+    private volatile boolean closed = false;
+
+    private WriteAheadLog(Path file, FileChannel channel, long size) {
+        this.file = file;
+        this.channel = channel;
+        this.written = size;
+        this.durable = size;
+    }
+
+    /**
+     * Opens the log for appending, creating it if it does not exist
+     */
+    public static WriteAheadLog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        channel.position(size);
+        return new WriteAheadLog(file, channel, size);
+    }
+
+    /**
+     * Replays every complete record of a log file. A torn or corrupted tail, left by a crash in the
+     * middle of a write, is cut off so the log can be appended to again.
+     * @return the number of replayed records
+     */
+    public static int replay(Path file, RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0)
+                return 0;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 crc = new CRC32();
+            int records = 0;
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length < 0 || buffer.remaining() < 1 + length) {
+                    buffer.position(start);
+                    break;
+                }
+                ByteBuffer record = buffer.slice(buffer.position(), 1 + length);
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    buffer.position(start);
+                    break;
+                }
+                byte op = record.get();
+                handler.accept(op, record.slice());
+                buffer.position(buffer.position() + 1 + length);
+                records++;
+            }
+            if (buffer.position() < size) {
+                logger.warn("Truncating {} bytes of incomplete records at the end of {}", size - buffer.position(), file);
+                channel.truncate(buffer.position());
+                channel.force(true);
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Writes a record, without waiting for it to reach the disk
+     * @return the position to pass to {@link #sync} to wait for the record to be durable
+     */
+    public synchronized long append(byte op, byte[] payload) {
+        if (closed)
+            throw new IllegalStateException("Log " + file + " is closed");
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        CRC32 crc = new CRC32();
+        crc.update(op);
+        crc.update(payload);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(op).put(payload).flip();
+        try {
+            while (record.hasRemaining())
+                channel.write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        written += record.limit();
+        return written;
+    }
+
+    /**
+     * Waits until every record up to the position is forced to disk
+     */
+    public void sync(long position) {
+        syncLock.lock();
+        try {
+            while (durable < position) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                long target = writtenPosition();
+                boolean forced = false;
+                syncLock.unlock();
+                try {
+                    channel.force(false);
+                    forced = true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    syncLock.lock();
+                    syncing = false;
+                    if (forced)
+                        durable = Math.max(durable, target);
+                    synced.signalAll();
+                }
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public synchronized long size() {
+        return written;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private synchronized long writtenPosition() {
+        return written;
+    }
+
+    /**
+     * Forces the remaining records to disk and closes the file
+     */
+    @Override
+    public void close() throws IOException {
+        long end;
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            end = written;
+        }
+        sync(end);
+        channel.close();
+    }
+}
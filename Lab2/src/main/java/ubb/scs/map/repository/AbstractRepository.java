@@ -5,53 +5,154 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread-safe in-memory repository.
+ * Every operation is a single atomic call on a ConcurrentHashMap, so concurrent threads never
+ * overwrite each other's elements and readers never block writers.
+ * findAll and getAll return weakly consistent views: they never throw ConcurrentModificationException
+ * and reflect some of the changes made while they are iterated.
+ * Registered {@link RepositoryIndex indexes} are notified inside the atomic map call, so changes of
+ * the same id reach the indexes in the same order as the map.
+ */
 public class AbstractRepository <T extends Identifiable<ID>, ID> implements Repository<T, ID> {
 
    // private final static Logger log= LogManager.getLogger();
     protected Map<ID,T> elem;
+    private final List<RepositoryIndex<T>> indexes= new CopyOnWriteArrayList<>();
 
     public AbstractRepository(){
-        elem= new HashMap<>();
+        elem= new ConcurrentHashMap<>();
+
+    }
 
+    /**
+     * @param store - thread-safe map the elements are kept in, its compute, computeIfPresent
+     *              and remove must be atomic, e.g. a ConcurrentIntObjectMap when ID is Integer
+     */
+    protected AbstractRepository(Map<ID,T> store){
+        elem= store;
     }
+
+    /**
+     * Registers an index and fills it with the current elements.
+     * Should be called before the repository is shared between threads.
+     */
+    public void addIndex(RepositoryIndex<T> index){
+        indexes.add(index);
+        for(T el: elem.values())
+            index.added(el);
+    }
+
     public void add(T el){
      //   log.traceEntry(" parameters {}",el);
-        if(elem.containsKey(el.getID()))
-        {
-        //    throw log.throwing(new RuntimeException("Element already exists!!!"));
-                throw new RuntimeException("Element already exists!!!");
-        }
-        else
-            elem.put(el.getID(),el);
+        elem.compute(el.getID(),(key,old)->{
+            if(old!=null)
+            {
+            //    throw log.throwing(new RuntimeException("Element already exists!!!"));
+                    throw new RuntimeException("Element already exists!!!");
+            }
+            for(RepositoryIndex<T> index: indexes)
+                index.added(el);
+            return el;
+        });
        // log.traceExit();
     }
 
     public void delete(T el){
       //  log.traceEntry("{}",el);
-        if(elem.containsKey(el.getID()))
-            elem.remove(el.getID());
+        elem.computeIfPresent(el.getID(),(key,old)->{
+            for(RepositoryIndex<T> index: indexes)
+                index.removed(old);
+            return null;
+        });
        // log.traceExit();
     }
 
+    /**
+     * Replaces the element stored under id, atomically
+     * @throws IllegalArgumentException if the element does not have the given id, the map and the indexes would disagree
+     */
     public void update(T el,ID id){
        // log.traceEntry("{}, {}",el,id );
-        if(elem.containsKey(id))
-            elem.put(el.getID(),el);
-        else
+        checkId(el,id);
+        if(elem.computeIfPresent(id,(key,old)->replaced(old,el))==null)
             throw new RuntimeException("Element doesn’t exist");
         //log.traceExit();
     }
 
+    /**
+     * Atomically replaces the element stored under id with the result of change,
+     * concurrent updates of the same id are applied one after the other
+     * @param change - computes the new element from the current one, must not have side effects and must keep its id
+     * @return the new element
+     */
+    public T update(ID id, UnaryOperator<T> change){
+        T updated=elem.computeIfPresent(id,(key,old)->{
+            T el=change.apply(old);
+            checkId(el,id);
+            return replaced(old,el);
+        });
+        if(updated==null)
+            throw new RuntimeException("Element doesn’t exist");
+        return updated;
+    }
+
+    /**
+     * Adds the element or replaces the one with the same id, used when a durable repository is recovered
+     */
+    void put(T el){
+        elem.compute(el.getID(),(key,old)->{
+            if(old!=null)
+                return replaced(old,el);
+            for(RepositoryIndex<T> index: indexes)
+                index.added(el);
+            return el;
+        });
+    }
+
+    /**
+     * Removes the element with the id if there is one, used when a durable repository is recovered
+     */
+    void remove(ID id){
+        elem.computeIfPresent(id,(key,old)->{
+            for(RepositoryIndex<T> index: indexes)
+                index.removed(old);
+            return null;
+        });
+    }
+
+    boolean contains(ID id){
+        return elem.containsKey(id);
+    }
+
+    void checkId(T el, ID id){
+        if(!Objects.equals(el.getID(),id))
+            throw new IllegalArgumentException("Element id "+el.getID()+" does not match "+id);
+    }
+
+    private T replaced(T old, T el){
+        for(RepositoryIndex<T> index: indexes){
+            index.removed(old);
+            index.added(el);
+        }
+        return el;
+    }
+
 
     public T findById( ID id){
         //log.traceEntry("{}",id);
-        if(elem.containsKey(id))
+        T found=elem.get(id);
+        if(found!=null)
 
           //  return log.traceExit(elem.get(id));
-            return elem.get(id);
+            return found;
 
         else {
 
@@ -60,13 +161,15 @@ public class AbstractRepository <T extends Identifiable<ID>, ID> implements Repo
         }
     }
     public Iterable<T> findAll() {
-        return elem.values();
+        return getAll();
     }
 
     @Override
     public Collection<T> getAll() {
         return elem.values();
     }
-}
-
 
+    public int size(){
+        return elem.size();
+    }
+}
@@ -0,0 +1,316 @@
+package ubb.scs.map.repository;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ubb.scs.map.model.Identifiable;
+import ubb.scs.map.persistence.RecordSerializer;
+import ubb.scs.map.persistence.Snapshot;
+import ubb.scs.map.persistence.WriteAheadLog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Makes an in-memory repository survive restarts, e.g. a RequestRepository which keeps its search and date indexes.
+ * Every add, update and delete is first appended to a write-ahead log and applied to the wrapped repository only
+ * once the record is on disk, so readers never see a change that could be lost; concurrent writers share the same
+ * fsync. When the log grows past the compaction threshold a background checkpoint switches to a new log and writes
+ * all elements to a snapshot, after which the old log and snapshot are deleted. On startup the newest snapshot is
+ * memory-mapped and loaded into the wrapped repository, then the logs written after it are replayed.
+ * All writes must go through this repository, reads can also use {@link #getRepository()}.
+ * Files in the directory: snapshot-&lt;generation&gt;.dat and wal-&lt;generation&gt;.log, a snapshot of generation g
+ * holds the state before the log of generation g.
+ * @param <R> - type of the wrapped repository
+ */
+public class DurableRepository<T extends Identifiable<ID>, ID, R extends AbstractRepository<T, ID>> implements Repository<T, ID>, Closeable {
+
+    private static final Logger logger = LogManager.getLogger();
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int STRIPES = 64;
+
+    private final Path directory;
+    private final RecordSerializer<T> serializer;
+    private final R repository;
+    private final long compactionThreshold;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private final Object checkpointMonitor = new Object();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private final ExecutorService compactor;
+    private volatile WriteAheadLog log;
+    private long generation;
+
+    /**
+     * Opens the repository stored in the directory, recovering its elements into the wrapped repository
+     * @param directory - created if it does not exist
+     * @param serializer - converts the elements to the bytes written to disk
+     * @param repository - empty repository the elements are kept in, its indexes are filled while recovering
+     * @param compactionThreshold - log size in bytes that triggers a checkpoint, 0 disables automatic checkpoints
+     */
+    public DurableRepository(Path directory, RecordSerializer<T> serializer, R repository, long compactionThreshold) {
+        this.directory = directory;
+        this.serializer = serializer;
+        this.repository = repository;
+        this.compactionThreshold = compactionThreshold;
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new ReentrantLock();
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "repository-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            recover();
+        } catch (IOException e) {
+            compactor.shutdownNow();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the wrapped repository, for reads
+     */
+    public R getRepository() {
+        return repository;
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        long started = System.nanoTime();
+        long snapshotGeneration = generations("snapshot-", ".dat").stream().mapToLong(Long::longValue).max().orElse(0);
+        int loaded = 0;
+        if (snapshotGeneration > 0)
+            loaded = Snapshot.read(snapshotFile(snapshotGeneration), serializer, repository::put);
+        int replayed = 0;
+        generation = Math.max(1, snapshotGeneration);
+        for (long logGeneration : generations("wal-", ".log")) {
+            if (logGeneration < snapshotGeneration)
+                continue;
+            replayed += WriteAheadLog.replay(logFile(logGeneration), this::replay);
+            generation = Math.max(generation, logGeneration);
+        }
+        log = WriteAheadLog.open(logFile(generation));
+        deleteBefore(snapshotGeneration);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(".tmp")).toList())
+                Files.deleteIfExists(file);
+        }
+        logger.info("Recovered {} elements from {} ({} from the snapshot, {} log records) in {}ms",
+                repository.size(), directory, loaded, replayed, (System.nanoTime() - started) / 1000000);
+    }
+
+    /**
+     * Applies a record of the log to the wrapped repository
+     */
+    protected void replay(byte op, ByteBuffer payload) {
+        T el = serializer.deserialize(payload);
+        if (op == PUT)
+            repository.put(el);
+        else if (op == DELETE)
+            repository.remove(el.getID());
+        else
+            throw new IllegalStateException("Unknown log record " + op);
+    }
+
+    @Override
+    public void add(T el) {
+        logged(el.getID(), PUT, () -> {
+            if (repository.contains(el.getID()))
+                throw new RuntimeException("Element already exists!!!");
+            return el;
+        }, repository::add);
+    }
+
+    @Override
+    public void delete(T el) {
+        logged(el.getID(), DELETE, () -> repository.contains(el.getID()) ? el : null, repository::delete);
+    }
+
+    @Override
+    public void update(T el, ID id) {
+        logged(id, PUT, () -> {
+            repository.checkId(el, id);
+            if (!repository.contains(id))
+                throw new RuntimeException("Element doesn’t exist");
+            return el;
+        }, updated -> repository.update(updated, id));
+    }
+
+    /**
+     * Replaces the element stored under id with the result of change,
+     * concurrent updates of the same id are applied one after the other
+     * @param change - computes the new element from the current one, must not have side effects and must keep its id
+     * @return the new element
+     */
+    public T update(ID id, UnaryOperator<T> change) {
+        return logged(id, PUT, () -> {
+            T updated = change.apply(repository.findById(id));
+            repository.checkId(updated, id);
+            return updated;
+        }, updated -> repository.update(updated, id));
+    }
+
+    @Override
+    public T findById(ID id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public Iterable<T> findAll() {
+        return repository.findAll();
+    }
+
+    @Override
+    public Collection<T> getAll() {
+        return repository.getAll();
+    }
+
+    public int size() {
+        return repository.size();
+    }
+
+    /**
+     * Appends the element returned by prepare to the log, waits for it to be on disk and only then applies it,
+     * all under the lock of the id so the log keeps the same order as the wrapped repository. A failed append
+     * or sync leaves the wrapped repository unchanged; when the sync fails the record may still be found on disk
+     * at the next start, the same as for a crash before the call returned.
+     * Writers of different ids hold different locks while they wait, so their records share one fsync.
+     * @param prepare - checks the change can be applied and returns the element to log, null when nothing changes
+     * @param apply - applies the logged element to the wrapped repository, must not fail once prepare succeeded
+     */
+    private T logged(ID id, byte op, Supplier<T> prepare, Consumer<T> apply) {
+        WriteAheadLog target;
+        T record;
+        rotationLock.readLock().lock();
+        try {
+            ReentrantLock stripe = stripes[(Objects.hashCode(id) & 0x7fffffff) % STRIPES];
+            stripe.lock();
+            try {
+                record = prepare.get();
+                if (record == null)
+                    return null;
+                byte[] payload = serializer.serialize(record);
+                target = log;
+                target.sync(target.append(op, payload));
+                apply.accept(record);
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+        if (compactionThreshold > 0 && target.size() >= compactionThreshold && compacting.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    checkpoint();
+                } catch (RuntimeException e) {
+                    logger.error("Checkpoint of {} failed: {}", directory, e.getMessage());
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+        return record;
+    }
+
+    /**
+     * Switches to a new log and writes every element to a snapshot, then deletes the older files.
+     * Writers are paused only while the log is switched and the element references are copied, the writes
+     * still waiting for their fsync finish first so every record of the old log is in the copy.
+     */
+    public void checkpoint() {
+        synchronized (checkpointMonitor) {
+            List<T> elements;
+            WriteAheadLog old;
+            long next;
+            rotationLock.writeLock().lock();
+            try {
+                next = generation + 1;
+                old = log;
+                log = WriteAheadLog.open(logFile(next));
+                generation = next;
+                elements = new ArrayList<>(repository.getAll());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                rotationLock.writeLock().unlock();
+            }
+            try {
+                old.close();
+                Snapshot.write(snapshotFile(next), elements, serializer);
+                deleteBefore(next);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            logger.info("Checkpointed {} elements of {} at generation {}", elements.size(), directory, next);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (checkpointMonitor) {
+            log.close();
+        }
+    }
+
+    private Path logFile(long generation) {
+        return directory.resolve(String.format("wal-%016x.log", generation));
+    }
+
+    private Path snapshotFile(long generation) {
+        return directory.resolve(String.format("snapshot-%016x.dat", generation));
+    }
+
+    /**
+     * @return the generations of the files with the prefix and suffix, in ascending order
+     */
+    private List<Long> generations(String prefix, String suffix) throws IOException {
+        List<Long> found = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> found.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()), 16)));
+        }
+        found.sort(null);
+        return found;
+    }
+
+    /**
+     * Deletes the logs and snapshots older than the generation
+     */
+    private void deleteBefore(long generation) throws IOException {
+        for (long old : generations("wal-", ".log")) {
+            if (old < generation)
+                Files.deleteIfExists(logFile(old));
+        }
+        for (long old : generations("snapshot-", ".dat")) {
+            if (old < generation)
+                Files.deleteIfExists(snapshotFile(old));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ubb.scs.map.repository;
+
+/**
+ * Secondary index kept up to date by an AbstractRepository.
+ * The callbacks run inside the atomic map operation of the changed id, they must be fast,
+ * thread-safe and must not call back into the repository.
+ * An element changed in place and then updated is passed to removed as it is now, not as it was added,
+ * so an index removes what it stored for the id instead of deriving it from the element again.
+ * @param <T> - type of the indexed elements
+ */
+public interface RepositoryIndex<T> {
+    void added(T el);
+
+    void removed(T el);
+}
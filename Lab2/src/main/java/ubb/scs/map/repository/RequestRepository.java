@@ -1,7 +1,106 @@
 package ubb.scs.map.repository;
 
+import ubb.scs.map.index.DateIndex;
+import ubb.scs.map.index.SearchHit;
+import ubb.scs.map.index.TextIndex;
 import ubb.scs.map.model.ComputerRepairRequest;
+import ubb.scs.map.utils.ConcurrentIntObjectMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class RequestRepository extends AbstractRepository<ComputerRepairRequest, Integer>{
-    public RequestRepository(){}
+    private volatile TextIndex<ComputerRepairRequest> textIndex;
+    private final DateIndex<ComputerRepairRequest> dateIndex=
+            new DateIndex<>(ComputerRepairRequest::getEpochDay, ComputerRepairRequest.NO_DATE);
+
+    public RequestRepository(){
+        addIndex(dateIndex);
+    }
+
+    /**
+     * @param primitiveKeys - keep the requests in a ConcurrentIntObjectMap instead of a ConcurrentHashMap,
+     *                      which stores the ids as primitive ints and needs no node object per request
+     * @param expectedSize - number of requests the store holds without resizing
+     */
+    public RequestRepository(boolean primitiveKeys, int expectedSize){
+        super(primitiveKeys ? new ConcurrentIntObjectMap<>(expectedSize) : new ConcurrentHashMap<>(expectedSize));
+        addIndex(dateIndex);
+    }
+
+    /**
+     * Builds the text index used by {@link #search} over the current requests and keeps it up to date.
+     * The index serializes all writes of the repository behind one lock, so it is only kept when enabled.
+     * Should be called before the repository is shared between threads.
+     * @return this repository
+     */
+    public synchronized RequestRepository enableSearch(){
+        if(textIndex==null){
+            TextIndex<ComputerRepairRequest> index=
+                    new TextIndex<>(ComputerRepairRequest::getProblemDescription, ComputerRepairRequest::getModel);
+            addIndex(index);
+            textIndex=index;
+        }
+        return this;
+    }
+
+    /**
+     * Finds requests by words of their problem description or model, e.g. "display asus"
+     * @param operator - AND for requests containing every word, OR for requests containing any of them
+     * @param limit - maximum number of results
+     * @return the matching requests, most relevant first
+     * @throws IllegalStateException if {@link #enableSearch} was not called
+     */
+    public List<ComputerRepairRequest> search(String words, TextIndex.Operator operator, int limit){
+        TextIndex<ComputerRepairRequest> index=textIndex;
+        if(index==null)
+            throw new IllegalStateException("Search is not enabled, call enableSearch first");
+        List<ComputerRepairRequest> found=new ArrayList<>();
+        for(SearchHit hit: index.search(words,operator,limit)){
+            ComputerRepairRequest request=elem.get(hit.getId());
+            if(request!=null)
+                found.add(request);
+        }
+        return found;
+    }
+
+    /**
+     * Finds the requests made between two dates, requests without a dd/MM/yyyy date are never found
+     * @param from - first day, inclusive
+     * @param to - last day, inclusive
+     * @return the requests ordered by date and then by id
+     */
+    public List<ComputerRepairRequest> findBetween(LocalDate from, LocalDate to){
+        List<ComputerRepairRequest> found=new ArrayList<>();
+        for(int id: dateIndex.idsBetween((int) from.toEpochDay(),(int) to.toEpochDay())){
+            ComputerRepairRequest request=elem.get(id);
+            if(request!=null)
+                found.add(request);
+        }
+        return found;
+    }
+
+    /**
+     * @return the number of requests made on the day
+     */
+    public int countOn(LocalDate day){
+        return dateIndex.count((int) day.toEpochDay());
+    }
+
+    /**
+     * @param from - first day, inclusive
+     * @param to - last day, inclusive
+     * @return the number of requests of every day between the two dates which has any
+     */
+    public SortedMap<LocalDate, Integer> countPerDay(LocalDate from, LocalDate to){
+        SortedMap<LocalDate, Integer> counts=new TreeMap<>();
+        for(Map.Entry<Integer, Integer> count: dateIndex.countsBetween((int) from.toEpochDay(),(int) to.toEpochDay()).entrySet())
+            counts.put(LocalDate.ofEpochDay(count.getKey()),count.getValue());
+        return counts;
+    }
 }
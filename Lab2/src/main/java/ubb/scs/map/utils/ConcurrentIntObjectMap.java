@@ -0,0 +1,316 @@
+package ubb.scs.map.utils;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+
+/**
+ * Thread-safe map from int keys to objects, striped over segments that are each an {@link IntObjectHashMap}
+ * guarded by its own StampedLock. Lookups first try an optimistic, lock-free read and only take the read lock
+ * when a writer interfered. It implements ConcurrentMap so it can back an AbstractRepository keyed by Integer;
+ * the Integer keys passed in are unboxed, no key objects are stored.
+ * Iteration is weakly consistent: each segment is copied when the iterator reaches it.
+ * @param <V> - type of the values, null values are not allowed
+ */
+public class ConcurrentIntObjectMap<V> extends AbstractMap<Integer, V> implements ConcurrentMap<Integer, V> {
+
+    private final IntObjectHashMap<V>[] segments;
+    private final StampedLock[] locks;
+    private final int segmentShift;
+
+    public ConcurrentIntObjectMap() {
+        this(16, 64);
+    }
+
+    /**
+     * @param expectedSize - number of entries the map holds without resizing
+     */
+    public ConcurrentIntObjectMap(int expectedSize) {
+        this(expectedSize, 64);
+    }
+
+    /**
+     * @param expectedSize - number of entries the map holds without resizing
+     * @param concurrency - number of segments, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentIntObjectMap(int expectedSize, int concurrency) {
+        int count = concurrency <= 1 ? 1 : Integer.highestOneBit(concurrency - 1) << 1;
+        segments = (IntObjectHashMap<V>[]) new IntObjectHashMap<?>[count];
+        locks = new StampedLock[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new IntObjectHashMap<>(Math.max(1, expectedSize / count));
+            locks[i] = new StampedLock();
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    private int segmentOf(int key) {
+        return segmentShift == 32 ? 0 : IntObjectHashMap.hash(key) >>> segmentShift;
+    }
+
+    /**
+     * Looks the key up without boxing
+     */
+    public V get(int key) {
+        int segment = segmentOf(key);
+        StampedLock lock = locks[segment];
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                V value = segments[segment].get(key);
+                if (lock.validate(stamp))
+                    return value;
+            } catch (RuntimeException e) {
+                // a concurrent resize was observed half way, retry under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return segments[segment].get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the previous value of the key, null if there was none
+     */
+    public V put(int key, V value) {
+        int segment = segmentOf(key);
+        long stamp = locks[segment].writeLock();
+        try {
+            return segments[segment].put(key, value);
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the removed value, null if the key was absent
+     */
+    public V remove(int key) {
+        int segment = segmentOf(key);
+        long stamp = locks[segment].writeLock();
+        try {
+            return segments[segment].remove(key);
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer id ? get(id.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer id ? remove(id.intValue()) : null;
+    }
+
+    @Override
+    public V putIfAbsent(Integer key, V value) {
+        int segment = segmentOf(key);
+        long stamp = locks[segment].writeLock();
+        try {
+            return segments[segment].putIfAbsent(key, value);
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V computeIfPresent(Integer key, BiFunction<? super Integer, ? super V, ? extends V> function) {
+        int segment = segmentOf(key);
+        long stamp = locks[segment].writeLock();
+        try {
+            return segments[segment].computeIfPresent(key, function::apply);
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V compute(Integer key, BiFunction<? super Integer, ? super V, ? extends V> function) {
+        int segment = segmentOf(key);
+        long stamp = locks[segment].writeLock();
+        try {
+            V updated = function.apply(key, segments[segment].get(key));
+            if (updated == null)
+                segments[segment].remove(key);
+            else
+                segments[segment].put(key, updated);
+            return updated;
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!(key instanceof Integer id) || value == null)
+            return false;
+        int segment = segmentOf(id);
+        long stamp = locks[segment].writeLock();
+        try {
+            V current = segments[segment].get(id);
+            if (current == null || !current.equals(value))
+                return false;
+            segments[segment].remove(id);
+            return true;
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean replace(Integer key, V oldValue, V newValue) {
+        if (newValue == null)
+            throw new NullPointerException("Null values are not supported");
+        int segment = segmentOf(key);
+        long stamp = locks[segment].writeLock();
+        try {
+            V current = segments[segment].get(key);
+            if (current == null || !current.equals(oldValue))
+                return false;
+            segments[segment].put(key, newValue);
+            return true;
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V replace(Integer key, V value) {
+        if (value == null)
+            throw new NullPointerException("Null values are not supported");
+        int segment = segmentOf(key);
+        long stamp = locks[segment].writeLock();
+        try {
+            return segments[segment].containsKey(key) ? segments[segment].put(key, value) : null;
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long total = 0;
+        for (int i = 0; i < segments.length; i++) {
+            long stamp = locks[i].readLock();
+            try {
+                total += segments[i].size();
+            } finally {
+                locks[i].unlockRead(stamp);
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < segments.length; i++) {
+            long stamp = locks[i].writeLock();
+            try {
+                segments[i].clear();
+            } finally {
+                locks[i].unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                Iterator<Entry<Integer, V>> entries = new EntryIterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        return entries.next().getValue();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentIntObjectMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentIntObjectMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Walks the segments in order, copying each one under its read lock when it is reached
+     */
+    private final class EntryIterator implements Iterator<Entry<Integer, V>> {
+        private int segment = 0;
+        private Iterator<Entry<Integer, V>> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && segment < segments.length)
+                current = snapshot(segment++);
+            return current.hasNext();
+        }
+
+        @Override
+        public Entry<Integer, V> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return current.next();
+        }
+
+        private Iterator<Entry<Integer, V>> snapshot(int index) {
+            long stamp = locks[index].readLock();
+            try {
+                List<Entry<Integer, V>> entries = new ArrayList<>(segments[index].size());
+                segments[index].forEach((key, value) -> entries.add(new SimpleImmutableEntry<>(key, value)));
+                return entries.iterator();
+            } finally {
+                locks[index].unlockRead(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package ubb.scs.map.utils;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+/**
+ * Map from primitive int keys to objects, with open addressing and linear probing.
+ * Keys are kept in an int[] next to a parallel value array, so an entry costs no Integer and no
+ * node object, and a lookup reads two adjacent arrays instead of following a chain of nodes.
+ * Removal shifts the following entries of the probe sequence back instead of leaving tombstones.
+ * Null values are not allowed, a null slot marks a free slot. Not thread-safe.
+ * @param <V> - type of the values
+ */
+public class IntObjectHashMap<V> {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public IntObjectHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize - number of entries the map holds without resizing
+     */
+    public IntObjectHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int[] keys = this.keys;
+        Object[] values = this.values;
+        int mask = this.mask;
+        for (int slot = slot(key, mask), probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            Object value = values[slot];
+            if (value == null)
+                return null;
+            if (keys[slot] == key)
+                return (V) value;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the previous value of the key, null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null)
+            throw new NullPointerException("Null values are not supported");
+        int slot = find(key);
+        if (slot >= 0) {
+            V old = (V) values[slot];
+            values[slot] = value;
+            return old;
+        }
+        insert(~slot, key, value);
+        return null;
+    }
+
+    /**
+     * @return the current value of the key, null if the value was added
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(int key, V value) {
+        if (value == null)
+            throw new NullPointerException("Null values are not supported");
+        int slot = find(key);
+        if (slot >= 0)
+            return (V) values[slot];
+        insert(~slot, key, value);
+        return null;
+    }
+
+    /**
+     * Replaces the value of a present key with the result of the function, a null result removes the key
+     * @return the new value, null if the key was absent or removed
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfPresent(int key, BiFunction<Integer, ? super V, ? extends V> function) {
+        int slot = find(key);
+        if (slot < 0)
+            return null;
+        V updated = function.apply(key, (V) values[slot]);
+        if (updated == null)
+            removeAt(slot);
+        else
+            values[slot] = updated;
+        return updated;
+    }
+
+    /**
+     * @return the removed value, null if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot < 0)
+            return null;
+        V old = (V) values[slot];
+        removeAt(slot);
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Calls the consumer for every entry, in slot order
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjectConsumer<? super V> consumer) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null)
+                consumer.accept(keys[slot], (V) values[slot]);
+        }
+    }
+
+    /**
+     * @return the values, copied into an array created by the generator
+     */
+    @SuppressWarnings("unchecked")
+    public V[] valuesArray(IntFunction<V[]> generator) {
+        V[] result = generator.apply(size);
+        int i = 0;
+        for (Object value : values) {
+            if (value != null)
+                result[i++] = (V) value;
+        }
+        return result;
+    }
+
+    /**
+     * Receives one entry of the map
+     */
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    /**
+     * @return the slot holding the key, or the bitwise complement of the free slot where it would be inserted
+     */
+    private int find(int key) {
+        int slot = slot(key, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == key)
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    private void insert(int slot, int key, V value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt)
+            rehash(values.length << 1);
+    }
+
+    /**
+     * Empties the slot and moves back every following entry of the cluster that would no longer be reachable
+     */
+    private void removeAt(int slot) {
+        size--;
+        int free = slot;
+        int next = (free + 1) & mask;
+        while (values[next] != null) {
+            int home = slot(keys[next], mask);
+            // the entry may move to the free slot only if its home is not between the free slot and its position
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[free] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i], mask);
+                while (values[slot] != null)
+                    slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(2, expectedSize) / LOAD_FACTOR);
+        if (needed > (1 << 30))
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * Fibonacci hashing, spreads consecutive ids over the whole table
+     */
+    static int hash(int key) {
+        return key * 0x9E3779B9;
+    }
+
+    private static int slot(int key, int mask) {
+        int h = hash(key);
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ubb.scs.map.model.ComputerRepairRequest;
+import ubb.scs.map.persistence.ComputerRepairRequestCodec;
+import ubb.scs.map.persistence.JavaRecordSerializer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class ComputerRepairRequestCodecTest {
+
+    private final ComputerRepairRequestCodec codec = new ComputerRepairRequestCodec();
+
+    private static void assertSameFields(ComputerRepairRequest expected, ComputerRepairRequest actual) {
+        assertEquals(expected.getID(), actual.getID());
+        assertEquals(expected.getOwnerName(), actual.getOwnerName());
+        assertEquals(expected.getOwnerAddress(), actual.getOwnerAddress());
+        assertEquals(expected.getPhoneNumber(), actual.getPhoneNumber());
+        assertEquals(expected.getModel(), actual.getModel());
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getProblemDescription(), actual.getProblemDescription());
+    }
+
+    @Test
+    @DisplayName("Requests survive a round trip")
+    public void testRoundTrip() {
+        List<ComputerRepairRequest> requests = List.of(
+                new ComputerRepairRequest(1, "A A", "Address A", "072222", "Asus", "13/10/2020", "Broken display"),
+                new ComputerRepairRequest(-7, "Ștefan Îonescu", "Cluj-Napoca 😀", "", "", "sometime in May", ""),
+                new ComputerRepairRequest(Integer.MAX_VALUE, "B", "C", "D", "E", "31/02/2020", "F"),
+                new ComputerRepairRequest(),
+                new ComputerRepairRequest(3, null, "Address", null, "Asus", null, null));
+        for (ComputerRepairRequest request : requests) {
+            byte[] bytes = codec.serialize(request);
+            assertEquals(codec.encodedSize(request), bytes.length);
+            assertSameFields(request, codec.deserialize(ByteBuffer.wrap(bytes)));
+        }
+    }
+
+    @Test
+    @DisplayName("Collections are encoded in bulk, also through direct buffers")
+    public void testBulk() {
+        List<ComputerRepairRequest> requests = new ArrayList<>();
+        for (int id = 0; id < 1000; id++)
+            requests.add(new ComputerRepairRequest(id, "Owner " + id, "Address " + id, "0722", "Acer", "10/10/2020", "Faulty keyboard"));
+        ByteBuffer encoded = codec.encodeAll(requests);
+        ByteBuffer direct = ByteBuffer.allocateDirect(encoded.remaining()).put(encoded.duplicate()).flip();
+        List<ComputerRepairRequest> decoded = codec.decodeAll(direct);
+        assertEquals(requests.size(), decoded.size());
+        for (int i = 0; i < requests.size(); i++)
+            assertSameFields(requests.get(i), decoded.get(i));
+        assertEquals(0, direct.remaining());
+    }
+
+    @Test
+    @DisplayName("Encoding is much smaller than Java serialization")
+    public void testSize() {
+        ComputerRepairRequest request = new ComputerRepairRequest(1, "A A", "Address A", "072222", "Asus", "13/10/2020", "Broken display");
+        int javaSize = new JavaRecordSerializer<ComputerRepairRequest>().serialize(request).length;
+        int codecSize = codec.serialize(request).length;
+        assertTrue(codecSize * 4 < javaSize, codecSize + " vs " + javaSize);
+    }
+
+    @Test
+    @DisplayName("Unknown versions, truncated records and corrupt lengths are rejected")
+    public void testInvalid() {
+        byte[] bytes = codec.serialize(new ComputerRepairRequest(1, "A", "B", "C", "D", "13/10/2020", "E"));
+        assertThrows(IllegalArgumentException.class, () -> codec.deserialize(ByteBuffer.wrap(bytes, 0, bytes.length - 1)));
+        bytes[0] = 9;
+        assertThrows(IllegalArgumentException.class, () -> codec.deserialize(ByteBuffer.wrap(bytes)));
+
+        byte[] negativeLength = {1, 0, 2, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+        assertThrows(IllegalArgumentException.class, () -> codec.deserialize(ByteBuffer.wrap(negativeLength)));
+        byte[] hugeCount = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 1, 0, 2};
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeAll(ByteBuffer.wrap(hugeCount)));
+        byte[] negativeCount = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeAll(ByteBuffer.wrap(negativeCount)));
+        byte[] invalidDay = {1, 1, 2, 0, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 0};
+        assertThrows(IllegalArgumentException.class, () -> codec.deserialize(ByteBuffer.wrap(invalidDay)));
+    }
+}
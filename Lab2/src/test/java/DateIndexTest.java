@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ubb.scs.map.index.DateIndex;
+import ubb.scs.map.model.ComputerRepairRequest;
+import ubb.scs.map.repository.RequestRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class DateIndexTest {
+
+    @Test
+    @DisplayName("The date is parsed once into an epoch day")
+    public void testEpochDay() throws Exception {
+        ComputerRepairRequest request = Requests.of(1, "Asus", "13/10/2020", "Broken display");
+        assertEquals(LocalDate.of(2020, 10, 13), request.getLocalDate());
+        assertEquals(LocalDate.of(2020, 10, 13).toEpochDay(), request.getEpochDay());
+        request.setDate("last week");
+        assertEquals(ComputerRepairRequest.NO_DATE, request.getEpochDay());
+        assertNull(request.getLocalDate());
+        assertEquals(ComputerRepairRequest.NO_DATE, ComputerRepairRequest.parseEpochDay("31/02/2020"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(Requests.of(2, "Asus", "01/01/2021", "Broken display"));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(LocalDate.of(2021, 1, 1), ((ComputerRepairRequest) in.readObject()).getLocalDate());
+        }
+    }
+
+    @Test
+    @DisplayName("Range queries and counts per day follow adds, updates and deletes")
+    public void testRange() {
+        RequestRepository repo = new RequestRepository();
+        repo.add(Requests.of(4, "Asus", "14/10/2020", "Broken display"));
+        repo.add(Requests.of(1, "Asus", "13/10/2020", "Broken display"));
+        repo.add(Requests.of(2, "Asus", "20/10/2020", "Broken display"));
+        repo.add(Requests.of(3, "Asus", "13/10/2020", "Broken display"));
+        repo.add(Requests.of(5, "Asus", "unknown", "Broken display"));
+
+        LocalDate from = LocalDate.of(2020, 10, 13);
+        LocalDate to = LocalDate.of(2020, 10, 19);
+        assertEquals(List.of(1, 3, 4), Requests.ids(repo.findBetween(from, to)));
+        assertEquals(2, repo.countOn(from));
+        assertEquals(Map.of(from, 2, LocalDate.of(2020, 10, 14), 1), repo.countPerDay(from, to));
+
+        repo.update(Requests.of(2, "Asus", "15/10/2020", "Broken display"), 2);
+        repo.delete(Requests.of(1, "Asus", "13/10/2020", "Broken display"));
+        assertEquals(List.of(3, 4, 2), Requests.ids(repo.findBetween(from, to)));
+        assertEquals(1, repo.countOn(from));
+        assertEquals(0, repo.countOn(LocalDate.of(2020, 10, 20)));
+        assertEquals(List.of(), repo.findBetween(to, from));
+
+        DateIndex<ComputerRepairRequest> index = new DateIndex<>(ComputerRepairRequest::getEpochDay, ComputerRepairRequest.NO_DATE);
+        index.added(Requests.of(1, "Asus", "13/10/2020", "Broken display"));
+        int day = (int) from.toEpochDay();
+        assertThrows(UnsupportedOperationException.class, () -> index.countsBetween(day, day + 6).put(day, 5));
+        assertThrows(UnsupportedOperationException.class, () -> index.countsBetween(day, day + 6).remove(day));
+        assertEquals(1, index.count(day));
+    }
+
+    @Test
+    @DisplayName("An element whose date was changed in place leaves its old day")
+    public void testUpdateInPlace() {
+        RequestRepository repo = new RequestRepository();
+        repo.add(Requests.of(1, "Asus", "13/10/2020", "Broken display"));
+        repo.add(Requests.of(2, "Asus", "13/10/2020", "Broken display"));
+
+        ComputerRepairRequest request = repo.findById(1);
+        request.setDate("20/10/2020");
+        repo.update(request, 1);
+        LocalDate old = LocalDate.of(2020, 10, 13);
+        LocalDate moved = LocalDate.of(2020, 10, 20);
+        assertEquals(1, repo.countOn(old));
+        assertEquals(List.of(2), Requests.ids(repo.findBetween(old, old)));
+        assertEquals(List.of(1), Requests.ids(repo.findBetween(moved, moved)));
+
+        request.setDate("unknown");
+        repo.update(request, 1);
+        assertEquals(0, repo.countOn(moved));
+        assertEquals(List.of(2), Requests.ids(repo.findBetween(old, moved)));
+
+        request.setDate("14/10/2020");
+        repo.update(request, 1);
+        repo.delete(request);
+        assertEquals(List.of(2), Requests.ids(repo.findBetween(old, moved)));
+        assertEquals(Map.of(old, 1), repo.countPerDay(old, moved));
+    }
+}
@@ -0,0 +1,151 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ubb.scs.map.model.ComputerRepairRequest;
+import ubb.scs.map.persistence.ComputerRepairRequestCodec;
+import ubb.scs.map.index.TextIndex;
+import ubb.scs.map.repository.DurableRepository;
+import ubb.scs.map.repository.RequestRepository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class DurableRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private DurableRepository<ComputerRepairRequest, Integer, RequestRepository> open(long compactionThreshold) {
+        return new DurableRepository<>(directory, new ComputerRepairRequestCodec(), new RequestRepository(true, 0).enableSearch(), compactionThreshold);
+    }
+
+    @Test
+    @DisplayName("Changes are recovered after a restart")
+    public void testRecoverFromLog() throws IOException {
+        try (var repo = open(0)) {
+            for (int id = 1; id <= 100; id++)
+                repo.add(Requests.of(id, "Broken display"));
+            repo.update(Requests.of(5, "Faulty keyboard"), 5);
+            repo.delete(Requests.of(6, ""));
+            repo.update(7, old -> Requests.of(7, old.getProblemDescription() + " again"));
+        }
+        try (var repo = open(0)) {
+            assertEquals(99, repo.getAll().size());
+            assertEquals("Faulty keyboard", repo.findById(5).getProblemDescription());
+            assertEquals("Broken display again", repo.findById(7).getProblemDescription());
+            assertThrows(RuntimeException.class, () -> repo.findById(6));
+        }
+    }
+
+    @Test
+    @DisplayName("Checkpoints replace the log with a snapshot")
+    public void testCheckpoint() throws IOException {
+        try (var repo = open(0)) {
+            for (int id = 1; id <= 100; id++)
+                repo.add(Requests.of(id, "Broken display"));
+            repo.checkpoint();
+            repo.delete(Requests.of(1, ""));
+            repo.add(Requests.of(101, "No power"));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        try (var repo = open(0)) {
+            assertEquals(100, repo.getAll().size());
+            assertEquals("No power", repo.findById(101).getProblemDescription());
+        }
+    }
+
+    @Test
+    @DisplayName("A torn record at the end of the log is discarded")
+    public void testTornTail() throws IOException {
+        try (var repo = open(0)) {
+            repo.add(Requests.of(1, "Broken display"));
+            repo.add(Requests.of(2, "Faulty keyboard"));
+        }
+        Path log;
+        try (Stream<Path> files = Files.list(directory)) {
+            log = files.filter(file -> file.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (var repo = open(0)) {
+            assertEquals(1, repo.getAll().size());
+            repo.add(Requests.of(3, "No power"));
+        }
+        try (var repo = open(0)) {
+            assertEquals(2, repo.getAll().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent writers with automatic compaction lose nothing")
+    public void testConcurrentWritesWithCompaction() throws Exception {
+        int threads = 8;
+        int perThread = 500;
+        try (var repo = open(16 * 1024)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++)
+                        repo.add(Requests.of(thread * perThread + i, "Broken display"));
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+            pool.shutdown();
+        }
+        try (var repo = open(0)) {
+            assertEquals(threads * perThread, repo.getAll().size());
+        }
+    }
+
+    @Test
+    @DisplayName("The indexes of a recovered RequestRepository are rebuilt")
+    public void testRecoveredIndexes() throws IOException {
+        try (var repo = open(0)) {
+            repo.add(Requests.of(1, "Broken display"));
+            repo.add(Requests.of(2, "Faulty keyboard"));
+            repo.checkpoint();
+            repo.update(Requests.of(1, "No power"), 1);
+        }
+        try (var repo = open(0)) {
+            RequestRepository requests = repo.getRepository();
+            assertTrue(requests.search("display", TextIndex.Operator.OR, 10).isEmpty());
+            assertEquals(1, requests.search("power", TextIndex.Operator.OR, 10).get(0).getID());
+            assertEquals(2, requests.countOn(LocalDate.of(2020, 10, 13)));
+        }
+    }
+
+    @Test
+    @DisplayName("A change which could not be logged is not applied")
+    public void testFailedAppend() throws IOException {
+        var repo = open(0);
+        repo.add(Requests.of(1, "Broken display"));
+        repo.close();
+        assertThrows(IllegalStateException.class, () -> repo.add(Requests.of(2, "No power")));
+        assertThrows(IllegalStateException.class, () -> repo.update(Requests.of(1, "No power"), 1));
+        assertThrows(IllegalStateException.class, () -> repo.delete(Requests.of(1, "")));
+        assertEquals(1, repo.size());
+        assertEquals("Broken display", repo.findById(1).getProblemDescription());
+        assertThrows(IllegalArgumentException.class, () -> repo.update(Requests.of(2, "No power"), 1));
+    }
+}
@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ubb.scs.map.utils.ConcurrentIntObjectMap;
+import ubb.scs.map.utils.IntObjectHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+public class IntObjectHashMapTest {
+
+    @Test
+    @DisplayName("Random operations match a HashMap")
+    public void testAgainstHashMap() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>(4);
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(5000) - 2500;
+            switch (random.nextInt(4)) {
+                case 0, 1 -> assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+                case 2 -> assertEquals(expected.remove(key), map.remove(key));
+                default -> assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        int[] visited = {0};
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key), value);
+            visited[0]++;
+        });
+        assertEquals(expected.size(), visited[0]);
+    }
+
+    @Test
+    @DisplayName("Removing from a probe cluster keeps the other keys reachable")
+    public void testRemoveInCluster() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>(1000);
+        for (int key = 0; key < 1000; key++)
+            map.put(key * 1024, key);
+        for (int key = 0; key < 1000; key += 2)
+            assertEquals(key, map.remove(key * 1024));
+        for (int key = 0; key < 1000; key++)
+            assertEquals(key % 2 == 0 ? null : key, map.get(key * 1024));
+    }
+
+    @Test
+    @DisplayName("Concurrent map behaves as a Map")
+    public void testConcurrentMap() {
+        ConcurrentIntObjectMap<String> map = new ConcurrentIntObjectMap<>(0, 4);
+        for (int key = 0; key < 10000; key++)
+            assertNull(map.putIfAbsent(key, "v" + key));
+        assertEquals("v7", map.putIfAbsent(7, "x"));
+        assertEquals("v7", map.replace(7, "w7"));
+        assertEquals(false, map.remove(7, "v7"));
+        assertEquals(true, map.remove(7, "w7"));
+        assertEquals(9999, map.size());
+        assertEquals(9999, map.values().size());
+        int[] count = {0};
+        map.values().forEach(value -> count[0]++);
+        assertEquals(9999, count[0]);
+        assertNull(map.get("7"));
+    }
+}
@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ubb.scs.map.model.ComputerRepairRequest;
+import ubb.scs.map.repository.RequestRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class RequestRepositoryTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 10000;
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+
+    @Test
+    @DisplayName("Concurrent adds keep every element")
+    public void testConcurrentAdd() throws Exception {
+        RequestRepository repo = new RequestRepository();
+        runConcurrently(thread -> {
+            for (int i = 0; i < PER_THREAD; i++)
+                repo.add(Requests.of(thread * PER_THREAD + i));
+        });
+        assertEquals(THREADS * PER_THREAD, repo.getAll().size());
+        assertEquals("Owner 12345", repo.findById(12345).getOwnerName());
+    }
+
+    @Test
+    @DisplayName("Only one of the concurrent adds of the same id succeeds")
+    public void testConcurrentDuplicateAdd() throws Exception {
+        RequestRepository repo = new RequestRepository();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                try {
+                    repo.add(Requests.of(i));
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+        assertEquals(PER_THREAD, repo.getAll().size());
+        assertEquals((THREADS - 1) * PER_THREAD, rejected.get());
+    }
+
+    @Test
+    @DisplayName("Atomic updates of the same element are not lost")
+    public void testConcurrentUpdate() throws Exception {
+        RequestRepository repo = new RequestRepository();
+        repo.add(Requests.of(1));
+        runConcurrently(thread -> {
+            for (int i = 0; i < 1000; i++)
+                repo.update(1, old -> new ComputerRepairRequest(1, old.getOwnerName() + "x", old.getOwnerAddress(),
+                        old.getPhoneNumber(), old.getModel(), old.getDate(), old.getProblemDescription()));
+        });
+        assertEquals("Owner 1".length() + THREADS * 1000, repo.findById(1).getOwnerName().length());
+    }
+
+    @Test
+    @DisplayName("Concurrent adds, updates and deletes on the primitive-keyed store")
+    public void testConcurrentPrimitiveStore() throws Exception {
+        RequestRepository repo = new RequestRepository(true, 0);
+        runConcurrently(thread -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                int id = thread * PER_THREAD + i;
+                repo.add(Requests.of(id));
+                repo.update(Requests.of(id), id);
+                if (i % 2 == 0)
+                    repo.delete(Requests.of(id));
+            }
+        });
+        assertEquals(THREADS * PER_THREAD / 2, repo.getAll().size());
+        assertEquals("Owner 12345", repo.findById(12345).getOwnerName());
+        assertThrows(RuntimeException.class, () -> repo.findById(12344));
+    }
+
+    @Test
+    @DisplayName("Update and delete of a missing element")
+    public void testMissing() {
+        RequestRepository repo = new RequestRepository();
+        repo.add(Requests.of(1));
+        repo.delete(Requests.of(1));
+        repo.delete(Requests.of(1));
+        assertThrows(RuntimeException.class, () -> repo.update(Requests.of(1), 1));
+        assertThrows(RuntimeException.class, () -> repo.findById(1));
+    }
+
+    @Test
+    @DisplayName("Updates cannot move an element to another id")
+    public void testMismatchedId() {
+        RequestRepository repo = new RequestRepository();
+        repo.add(Requests.of(1));
+        repo.add(Requests.of(2));
+        assertThrows(IllegalArgumentException.class, () -> repo.update(Requests.of(2), 1));
+        assertThrows(IllegalArgumentException.class, () -> repo.update(1, old -> Requests.of(2)));
+        assertEquals(1, repo.findById(1).getID());
+        assertEquals(2, repo.findById(2).getID());
+    }
+}
@@ -0,0 +1,30 @@
+import ubb.scs.map.model.ComputerRepairRequest;
+
+import java.util.List;
+
+/**
+ * Repair requests shared by the repository, index and persistence tests
+ */
+final class Requests {
+
+    static final String DATE = "13/10/2020";
+
+    private Requests() {
+    }
+
+    static ComputerRepairRequest of(int id) {
+        return of(id, "Broken display");
+    }
+
+    static ComputerRepairRequest of(int id, String problem) {
+        return of(id, "Asus", DATE, problem);
+    }
+
+    static ComputerRepairRequest of(int id, String model, String date, String problem) {
+        return new ComputerRepairRequest(id, "Owner " + id, "Address " + id, "0722", model, date, problem);
+    }
+
+    static List<Integer> ids(List<ComputerRepairRequest> requests) {
+        return requests.stream().map(ComputerRepairRequest::getID).toList();
+    }
+}
@@ -0,0 +1,88 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ubb.scs.map.index.TextIndex;
+import ubb.scs.map.index.Tokenizer;
+import ubb.scs.map.model.ComputerRepairRequest;
+import ubb.scs.map.repository.RequestRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TextIndexTest {
+
+    @Test
+    @DisplayName("Text is normalized into terms")
+    public void testTokens() {
+        assertEquals(List.of("ecran", "spart", "la", "asus", "x550"), Tokenizer.tokens("Ecran SPART, la Asus-X550!"));
+    }
+
+    @Test
+    @DisplayName("AND and OR queries with ranking")
+    public void testSearch() {
+        RequestRepository repo = new RequestRepository().enableSearch();
+        repo.add(Requests.of(1, "Asus", Requests.DATE, "Broken display"));
+        repo.add(Requests.of(2, "Acer", Requests.DATE, "Faulty keyboard"));
+        repo.add(Requests.of(3, "Asus", Requests.DATE, "Display flickers, display dims"));
+        repo.add(Requests.of(4, "Lenovo", Requests.DATE, "Keyboard and display broken"));
+
+        assertEquals(List.of(3, 1, 4), Requests.ids(repo.search("display", TextIndex.Operator.AND, 10)));
+        assertEquals(List.of(3, 1), Requests.ids(repo.search("Asus display", TextIndex.Operator.AND, 10)));
+        assertEquals(List.of(4), Requests.ids(repo.search("keyboard display", TextIndex.Operator.AND, 10)));
+        assertEquals(4, repo.search("keyboard display", TextIndex.Operator.OR, 10).get(0).getID());
+        assertTrue(repo.search("screen", TextIndex.Operator.OR, 10).isEmpty());
+        assertTrue(repo.search("asus screen", TextIndex.Operator.AND, 10).isEmpty());
+        assertThrows(IllegalStateException.class, () -> new RequestRepository().search("display", TextIndex.Operator.OR, 10));
+    }
+
+    @Test
+    @DisplayName("The index follows updates and deletes")
+    public void testMaintenance() {
+        RequestRepository repo = new RequestRepository(true, 0).enableSearch();
+        repo.add(Requests.of(1, "Asus", Requests.DATE, "Broken display"));
+        repo.add(Requests.of(2, "Acer", Requests.DATE, "Faulty keyboard"));
+        repo.update(Requests.of(1, "Asus", Requests.DATE, "No power"), 1);
+        assertTrue(repo.search("display", TextIndex.Operator.OR, 10).isEmpty());
+        assertEquals(List.of(1), Requests.ids(repo.search("power", TextIndex.Operator.OR, 10)));
+        repo.delete(Requests.of(2, "", Requests.DATE, ""));
+        assertTrue(repo.search("keyboard", TextIndex.Operator.OR, 10).isEmpty());
+        repo.update(1, old -> Requests.of(1, "Dell", Requests.DATE, old.getProblemDescription()));
+        assertEquals(List.of(1), Requests.ids(repo.search("dell power", TextIndex.Operator.AND, 10)));
+    }
+
+    @Test
+    @DisplayName("An element whose text was changed in place leaves its old terms")
+    public void testUpdateInPlace() {
+        RequestRepository repo = new RequestRepository().enableSearch();
+        repo.add(Requests.of(1, "Asus", Requests.DATE, "Broken display"));
+        repo.add(Requests.of(2, "Acer", Requests.DATE, "Broken keyboard"));
+
+        ComputerRepairRequest request = repo.findById(1);
+        request.setProblemDescription("No power");
+        repo.update(request, 1);
+        assertTrue(repo.search("display", TextIndex.Operator.OR, 10).isEmpty());
+        assertEquals(List.of(2), Requests.ids(repo.search("broken", TextIndex.Operator.OR, 10)));
+        assertEquals(List.of(1), Requests.ids(repo.search("power", TextIndex.Operator.OR, 10)));
+
+        request.setProblemDescription("");
+        request.setModel("");
+        repo.update(request, 1);
+        repo.delete(request);
+        assertTrue(repo.search("power asus", TextIndex.Operator.OR, 10).isEmpty());
+        assertEquals(List.of(2), Requests.ids(repo.search("acer broken", TextIndex.Operator.AND, 10)));
+    }
+
+    @Test
+    @DisplayName("Large intersections return the best hits first")
+    public void testLargeIntersection() {
+        RequestRepository repo = new RequestRepository(true, 100000).enableSearch();
+        for (int id = 0; id < 100000; id++)
+            repo.add(Requests.of(id, id % 2 == 0 ? "Asus" : "Acer", Requests.DATE, id % 3 == 0 ? "broken display display" : "broken keyboard"));
+        List<ComputerRepairRequest> hits = repo.search("asus display", TextIndex.Operator.AND, 5);
+        assertEquals(List.of(0, 6, 12, 18, 24), Requests.ids(hits));
+        assertEquals(100000 / 6 + 1, repo.search("asus display", TextIndex.Operator.AND, 100000).size());
+    }
+}
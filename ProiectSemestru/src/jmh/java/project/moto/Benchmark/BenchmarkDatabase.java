@@ -0,0 +1,161 @@
+package project.moto.Benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import project.moto.Repository.DatasbaseRepository.PlayerDBRepository;
+import project.moto.Repository.DatasbaseRepository.RaceDBRepository;
+import project.moto.Repository.DatasbaseRepository.TeamDBRepository;
+import project.moto.Repository.DatasbaseRepository.UserDBRepository;
+import project.moto.Utils.JdbcUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * SQLite database seeded with the configured number of rows, shared by all benchmark threads.
+ * A fresh database file is created for every trial so write benchmarks do not leak into the next run.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    @Param({"1000"})
+    public int players;
+
+    @Param({"50"})
+    public int teams;
+
+    @Param({"500"})
+    public int races;
+
+    @Param({"10"})
+    public int playersPerRace;
+
+    @Param({"1000"})
+    public int users;
+
+    public Path file;
+    public Properties props;
+    public PlayerDBRepository playerRepo;
+    public TeamDBRepository teamRepo;
+    public UserDBRepository userRepo;
+    public RaceDBRepository raceRepo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        file = Files.createTempFile("moto-bench", ".sqlite");
+        String url = "jdbc:sqlite:" + file.toAbsolutePath();
+        try (Connection con = DriverManager.getConnection(url)) {
+            createSchema(con);
+            seed(con);
+        }
+        props = new Properties();
+        props.setProperty("jdbc.url", url);
+        props.setProperty("jdbc.pool.maxSize", String.valueOf(Math.max(2, Runtime.getRuntime().availableProcessors())));
+        playerRepo = new PlayerDBRepository(props);
+        teamRepo = new TeamDBRepository(props);
+        userRepo = new UserDBRepository(props);
+        raceRepo = new RaceDBRepository(props);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        JdbcUtils.closePools();
+        Files.deleteIfExists(file);
+    }
+
+    public int randomPlayerId() {
+        return ThreadLocalRandom.current().nextInt(players) + 1;
+    }
+
+    public int randomTeamId() {
+        return ThreadLocalRandom.current().nextInt(teams) + 1;
+    }
+
+    public int randomRaceId() {
+        return ThreadLocalRandom.current().nextInt(races) + 1;
+    }
+
+    public int randomUserId() {
+        return ThreadLocalRandom.current().nextInt(users) + 1;
+    }
+
+    public static String username(int id) {
+        return "user" + id;
+    }
+
+    private void createSchema(Connection con) throws SQLException {
+        try (Statement stmt = con.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE Team (Name varchar(20) not null, " +
+                    "Id integer not null constraint team_pk primary key autoincrement)");
+            stmt.executeUpdate("CREATE TABLE Player (Name varchar(20) not null, " +
+                    "Id INTEGER not null constraint Player_pk primary key autoincrement, " +
+                    "Code varchar(20) not null, Team INTEGER constraint Player_Team_Id_fk references Team)");
+            stmt.executeUpdate("CREATE TABLE Race (Id integer not null constraint Race_pk primary key autoincrement, " +
+                    "NoPlayers integer not null, EngineType integer not null)");
+            stmt.executeUpdate("CREATE TABLE PlayerRaces (PlayerId integer not null, RaceId integer not null, " +
+                    "constraint PlayerRaces_pk primary key (PlayerId, RaceId))");
+            stmt.executeUpdate("CREATE TABLE User (Id integer not null constraint User_pk primary key autoincrement, " +
+                    "Username varchar(20) not null, Password varchar(20) not null)");
+        }
+    }
+
+    private void seed(Connection con) throws SQLException {
+        con.setAutoCommit(false);
+        try (PreparedStatement stmt = con.prepareStatement("INSERT INTO Team (Name) VALUES (?)")) {
+            for (int i = 1; i <= teams; i++) {
+                stmt.setString(1, "Team " + i);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        try (PreparedStatement stmt = con.prepareStatement("INSERT INTO Player (Name, Code, Team) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= players; i++) {
+                stmt.setString(1, "Player " + i);
+                stmt.setString(2, String.format("%013d", i));
+                stmt.setInt(3, (i % teams) + 1);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        int rosterSize = Math.min(playersPerRace, players);
+        try (PreparedStatement race = con.prepareStatement("INSERT INTO Race (EngineType, NoPlayers) VALUES (?, ?)");
+             PreparedStatement roster = con.prepareStatement("INSERT INTO PlayerRaces (PlayerId, RaceId) VALUES (?, ?)")) {
+            int[] engineTypes = {50, 125, 250, 500};
+            for (int i = 1; i <= races; i++) {
+                race.setInt(1, engineTypes[i % engineTypes.length]);
+                race.setInt(2, rosterSize);
+                race.addBatch();
+                int first = ThreadLocalRandom.current().nextInt(players);
+                for (int j = 0; j < rosterSize; j++) {
+                    roster.setInt(1, (first + j) % players + 1);
+                    roster.setInt(2, i);
+                    roster.addBatch();
+                }
+            }
+            race.executeBatch();
+            roster.executeBatch();
+        }
+        try (PreparedStatement stmt = con.prepareStatement("INSERT INTO User (Username, Password) VALUES (?, ?)")) {
+            for (int i = 1; i <= users; i++) {
+                stmt.setString(1, username(i));
+                stmt.setString(2, "secret" + i);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        con.commit();
+        con.setAutoCommit(true);
+    }
+}
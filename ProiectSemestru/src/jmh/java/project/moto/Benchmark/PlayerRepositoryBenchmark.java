@@ -0,0 +1,77 @@
+package project.moto.Benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import project.moto.Domain.Player;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findOne/findAll/save/update/delete on PlayerDBRepository
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class PlayerRepositoryBenchmark {
+
+    @State(Scope.Thread)
+    public static class Victim {
+        Integer id;
+
+        @Setup(Level.Invocation)
+        public void insert(BenchmarkDatabase db) {
+            Player player = new Player("Victim", "0000000000000", db.randomTeamId());
+            id = db.playerRepo.save(player).orElseThrow().getId();
+        }
+    }
+
+    @Benchmark
+    public Optional<Player> findOne(BenchmarkDatabase db) {
+        return db.playerRepo.findOne(db.randomPlayerId());
+    }
+
+    @Benchmark
+    public Map<Integer, Player> findAll(BenchmarkDatabase db) {
+        return db.playerRepo.findAll();
+    }
+
+    @Benchmark
+    public Optional<Player> save(BenchmarkDatabase db) {
+        return db.playerRepo.save(new Player("Bench", "1234567890123", db.randomTeamId()));
+    }
+
+    @Benchmark
+    public Optional<Player> update(BenchmarkDatabase db) {
+        int id = db.randomPlayerId();
+        Player player = new Player("Player " + id, "9876543210987", db.randomTeamId());
+        player.setId(id);
+        return db.playerRepo.update(player);
+    }
+
+    @Benchmark
+    public Optional<Player> delete(BenchmarkDatabase db, Victim victim) {
+        return db.playerRepo.delete(victim.id);
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends PlayerRepositoryBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class MultiThreaded extends PlayerRepositoryBenchmark {
+    }
+}
@@ -0,0 +1,92 @@
+package project.moto.Benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import project.moto.Domain.Player;
+import project.moto.Domain.Race;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findOne/findAll/save/update/delete on RaceDBRepository, races carry a roster of playersPerRace players
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class RaceRepositoryBenchmark {
+
+    @State(Scope.Thread)
+    public static class Victim {
+        Integer id;
+
+        @Setup(Level.Invocation)
+        public void insert(BenchmarkDatabase db) {
+            id = db.raceRepo.save(newRace(db)).orElseThrow().getId();
+        }
+    }
+
+    static Race newRace(BenchmarkDatabase db) {
+        List<Player> roster = new ArrayList<>();
+        int first = db.randomPlayerId();
+        for (int i = 0; i < Math.min(db.playersPerRace, db.players); i++) {
+            Player player = new Player("Player", "0000000000000", 1);
+            player.setId((first + i) % db.players + 1);
+            roster.add(player);
+        }
+        Race race = new Race(125);
+        race.setPlayers(roster);
+        race.setNoPlayers(roster.size());
+        return race;
+    }
+
+    @Benchmark
+    public Optional<Race> findOne(BenchmarkDatabase db) {
+        return db.raceRepo.findOne(db.randomRaceId());
+    }
+
+    @Benchmark
+    public Map<Integer, Race> findAll(BenchmarkDatabase db) {
+        return db.raceRepo.findAll();
+    }
+
+    @Benchmark
+    public Optional<Race> save(BenchmarkDatabase db) {
+        return db.raceRepo.save(newRace(db));
+    }
+
+    @Benchmark
+    public Optional<Race> update(BenchmarkDatabase db) {
+        Race race = newRace(db);
+        race.setId(db.randomRaceId());
+        return db.raceRepo.update(race);
+    }
+
+    @Benchmark
+    public Optional<Race> delete(BenchmarkDatabase db, Victim victim) {
+        return db.raceRepo.delete(victim.id);
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends RaceRepositoryBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class MultiThreaded extends RaceRepositoryBenchmark {
+    }
+}
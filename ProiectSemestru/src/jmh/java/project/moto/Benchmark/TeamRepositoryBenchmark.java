@@ -0,0 +1,76 @@
+package project.moto.Benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import project.moto.Domain.Team;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findOne/findAll/save/update/delete on TeamDBRepository
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class TeamRepositoryBenchmark {
+
+    @State(Scope.Thread)
+    public static class Victim {
+        Integer id;
+
+        @Setup(Level.Invocation)
+        public void insert(BenchmarkDatabase db) {
+            id = db.teamRepo.save(new Team("Victim")).orElseThrow().getId();
+        }
+    }
+
+    @Benchmark
+    public Optional<Team> findOne(BenchmarkDatabase db) {
+        return db.teamRepo.findOne(db.randomTeamId());
+    }
+
+    @Benchmark
+    public Map<Integer, Team> findAll(BenchmarkDatabase db) {
+        return db.teamRepo.findAll();
+    }
+
+    @Benchmark
+    public Optional<Team> save(BenchmarkDatabase db) {
+        return db.teamRepo.save(new Team("Bench"));
+    }
+
+    @Benchmark
+    public Optional<Team> update(BenchmarkDatabase db) {
+        int id = db.randomTeamId();
+        Team team = new Team("Team " + id);
+        team.setId(id);
+        return db.teamRepo.update(team);
+    }
+
+    @Benchmark
+    public Optional<Team> delete(BenchmarkDatabase db, Victim victim) {
+        return db.teamRepo.delete(victim.id);
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends TeamRepositoryBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class MultiThreaded extends TeamRepositoryBenchmark {
+    }
+}
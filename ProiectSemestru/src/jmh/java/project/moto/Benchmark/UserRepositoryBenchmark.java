@@ -0,0 +1,81 @@
+package project.moto.Benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import project.moto.Domain.User;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findOne/findAll/save/update/delete and findByUsername on UserDBRepository
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class UserRepositoryBenchmark {
+
+    @State(Scope.Thread)
+    public static class Victim {
+        Integer id;
+
+        @Setup(Level.Invocation)
+        public void insert(BenchmarkDatabase db) {
+            id = db.userRepo.save(new User("victim", "victim")).orElseThrow().getId();
+        }
+    }
+
+    @Benchmark
+    public Optional<User> findOne(BenchmarkDatabase db) {
+        return db.userRepo.findOne(db.randomUserId());
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername(BenchmarkDatabase db) {
+        return db.userRepo.findByUsername(BenchmarkDatabase.username(db.randomUserId()));
+    }
+
+    @Benchmark
+    public Map<Integer, User> findAll(BenchmarkDatabase db) {
+        return db.userRepo.findAll();
+    }
+
+    @Benchmark
+    public Optional<User> save(BenchmarkDatabase db) {
+        return db.userRepo.save(new User("bench", "bench"));
+    }
+
+    @Benchmark
+    public Optional<User> update(BenchmarkDatabase db) {
+        int id = db.randomUserId();
+        User user = new User(BenchmarkDatabase.username(id), "changed" + id);
+        user.setId(id);
+        return db.userRepo.update(user);
+    }
+
+    @Benchmark
+    public Optional<User> delete(BenchmarkDatabase db, Victim victim) {
+        return db.userRepo.delete(victim.id);
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends UserRepositoryBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class MultiThreaded extends UserRepositoryBenchmark {
+    }
+}
@@ -0,0 +1,147 @@
+package project.moto.Export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes text as UTF-8 into one fixed size buffer which is written to a FileChannel whenever it fills up,
+ * optionally through a gzip stream. The memory used does not depend on how much text is written.
+ */
+public class ChannelWriter implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final GZIPOutputStream gzip;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private long written = 0;
+
+    /**
+     * @param channel - the channel the text is written to, closed together with the writer
+     * @param compress - whether the text is gzip compressed
+     * @param bufferSize - size of the encoding buffer
+     */
+    public ChannelWriter(FileChannel channel, boolean compress, int bufferSize) throws IOException {
+        if (bufferSize < 8)
+            throw new IllegalArgumentException("Invalid buffer size " + bufferSize);
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.bytes = buffer.array();
+        OutputStream out = Channels.newOutputStream(channel);
+        this.gzip = compress ? new GZIPOutputStream(out, bufferSize) : null;
+    }
+
+    public ChannelWriter append(char c) throws IOException {
+        if (buffer.remaining() < 4)
+            drain();
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | c >> 6));
+            buffer.put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | c >> 12));
+            buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | c & 0x3F));
+        }
+        return this;
+    }
+
+    public ChannelWriter append(CharSequence text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                appendCodePoint(Character.toCodePoint(c, text.charAt(++i)));
+            } else if (c < 0x80 && buffer.hasRemaining()) {
+                buffer.put((byte) c);
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+
+    public ChannelWriter append(long value) throws IOException {
+        if (buffer.remaining() < 20)
+            drain();
+        if (value == Long.MIN_VALUE)
+            return append(Long.toString(value));
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int end = buffer.position() + digits(value);
+        buffer.position(end);
+        do {
+            bytes[--end] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        return this;
+    }
+
+    /**
+     * @return the number of bytes handed to the channel or to the gzip stream so far
+     */
+    public long getWritten() {
+        return written + buffer.position();
+    }
+
+    /**
+     * Writes the buffered text, finishes the gzip stream and forces the file to the disk
+     */
+    public void finish() throws IOException {
+        drain();
+        if (gzip != null)
+            gzip.finish();
+        channel.force(true);
+    }
+
+    /**
+     * Closes the gzip stream, releasing its native deflater, and the channel
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (gzip != null)
+                gzip.close();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void appendCodePoint(int codePoint) throws IOException {
+        if (buffer.remaining() < 4)
+            drain();
+        buffer.put((byte) (0xF0 | codePoint >> 18));
+        buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+        buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+        buffer.put((byte) (0x80 | codePoint & 0x3F));
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        written += buffer.remaining();
+        if (gzip != null) {
+            gzip.write(bytes, 0, buffer.limit());
+        } else {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
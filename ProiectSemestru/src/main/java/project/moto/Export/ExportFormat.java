@@ -0,0 +1,15 @@
+package project.moto.Export;
+
+/**
+ * Formats the races can be exported in
+ */
+public enum ExportFormat {
+    /**
+     * One line per race and player, races without players have empty player columns
+     */
+    CSV,
+    /**
+     * An array of races, each one with the array of its players
+     */
+    JSON
+}
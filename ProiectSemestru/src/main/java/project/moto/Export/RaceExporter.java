@@ -0,0 +1,208 @@
+package project.moto.Export;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import project.moto.Repository.DatasbaseRepository.RaceDBRepository;
+import project.moto.Utils.JdbcUtils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Exports every race together with its players.
+ * The rows of one joined query ordered by race are written to the file as they are read from the cursor,
+ * no Race or Player objects are built, so the memory used stays the same for any number of races.
+ */
+public class RaceExporter {
+
+    private static final Logger logger = LogManager.getLogger();
+    private static final String RACES_WITH_PLAYERS = RaceDBRepository.RACES_WITH_PLAYERS + " ORDER BY r.Id, pr.PlayerId";
+
+    private final JdbcUtils dbUtils;
+    private final int bufferSize;
+
+    public RaceExporter(Properties props) {
+        this(props, 1 << 16);
+    }
+
+    /**
+     * @param bufferSize - size of the buffer the text is encoded into before it is written to the file
+     */
+    public RaceExporter(Properties props, int bufferSize) {
+        this.dbUtils = new JdbcUtils(props);
+        this.bufferSize = bufferSize;
+        logger.info("Initialized RaceExporter with properties: {}", props);
+    }
+
+    /**
+     * Exports the races to a file. The export is written under a temporary name next to the file and moved
+     * over it once complete, so a reader never sees a partial export.
+     * @param file - the exported file, replaced if it exists
+     * @param format - CSV or JSON
+     * @param gzip - whether the file is gzip compressed
+     * @return the number of exported races
+     * @throws IOException if the file could not be written
+     */
+    public long export(Path file, ExportFormat format, boolean gzip) throws IOException {
+        logger.traceEntry("Exporting races to {} as {} gzip={}", file, format, gzip);
+        long start = System.nanoTime();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long races;
+        long bytes;
+        try (ChannelWriter out = new ChannelWriter(FileChannel.open(tmp, CREATE, WRITE, TRUNCATE_EXISTING), gzip, bufferSize);
+             Connection con = dbUtils.getConnection();
+             PreparedStatement preStmt = con.prepareStatement(RACES_WITH_PLAYERS)) {
+            preStmt.setFetchSize(dbUtils.getFetchSize());
+            try (ResultSet result = preStmt.executeQuery()) {
+                races = format == ExportFormat.CSV ? writeCsv(result, out) : writeJson(result, out);
+            }
+            out.finish();
+            bytes = out.getWritten();
+        } catch (SQLException e) {
+            logger.error(e.getMessage());
+            Files.deleteIfExists(tmp);
+            throw new RuntimeException(e);
+        } catch (IOException | RuntimeException e) {
+            logger.error(e.getMessage());
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        logger.info("Exported {} races to {} in {} ms, {} bytes before compression",
+                races, file, (System.nanoTime() - start) / 1_000_000, bytes);
+        return logger.traceExit(races);
+    }
+
+    private static long writeCsv(ResultSet result, ChannelWriter out) throws SQLException, IOException {
+        out.append("RaceId,EngineType,NoPlayers,PlayerId,PlayerName,PlayerCode,PlayerTeam\n");
+        long races = 0;
+        int lastRace = 0;
+        while (result.next()) {
+            int raceId = result.getInt(1);
+            if (races == 0 || raceId != lastRace) {
+                races++;
+                lastRace = raceId;
+            }
+            out.append(raceId).append(',').append(result.getInt(2)).append(',').append(result.getInt(3)).append(',');
+            int playerId = result.getInt(4);
+            if (result.wasNull()) {
+                out.append(",,,\n");
+                continue;
+            }
+            out.append(playerId).append(',');
+            csvField(out, result.getString(5));
+            out.append(',');
+            csvField(out, result.getString(6));
+            out.append(',');
+            int team = result.getInt(7);
+            if (!result.wasNull())
+                out.append(team);
+            out.append('\n');
+        }
+        return races;
+    }
+
+    private static long writeJson(ResultSet result, ChannelWriter out) throws SQLException, IOException {
+        out.append("[\n");
+        long races = 0;
+        int lastRace = 0;
+        boolean firstPlayer = true;
+        while (result.next()) {
+            int raceId = result.getInt(1);
+            if (races == 0 || raceId != lastRace) {
+                if (races > 0)
+                    out.append("]},\n");
+                races++;
+                lastRace = raceId;
+                firstPlayer = true;
+                out.append("{\"id\":").append(raceId)
+                        .append(",\"engineType\":").append(result.getInt(2))
+                        .append(",\"noPlayers\":").append(result.getInt(3))
+                        .append(",\"players\":[");
+            }
+            int playerId = result.getInt(4);
+            if (result.wasNull())
+                continue;
+            if (!firstPlayer)
+                out.append(',');
+            firstPlayer = false;
+            out.append("{\"id\":").append(playerId).append(",\"name\":");
+            jsonString(out, result.getString(5));
+            out.append(",\"code\":");
+            jsonString(out, result.getString(6));
+            out.append(",\"team\":");
+            int team = result.getInt(7);
+            if (result.wasNull())
+                out.append("null");
+            else
+                out.append(team);
+            out.append('}');
+        }
+        if (races > 0)
+            out.append("]}\n");
+        out.append("]\n");
+        return races;
+    }
+
+    private static void csvField(ChannelWriter out, String value) throws IOException {
+        if (value == null)
+            return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"')
+                out.append('"');
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void jsonString(ChannelWriter out, String value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20)
+                        out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1)))
+                        out.append(value.substring(i, ++i + 1));
+                    else
+                        out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -1,5 +1,6 @@
 package project.moto;
 
+import project.moto.Domain.Entity;
 import project.moto.Domain.Player;
 import project.moto.Domain.Race;
 import project.moto.Domain.Team;
@@ -8,6 +9,16 @@ import project.moto.Repository.DatasbaseRepository.PlayerDBRepository;
 import project.moto.Repository.DatasbaseRepository.RaceDBRepository;
 import project.moto.Repository.DatasbaseRepository.TeamDBRepository;
 import project.moto.Repository.DatasbaseRepository.UserDBRepository;
+import project.moto.Repository.Events.ChangeEventBus;
+import project.moto.Repository.Events.PublishingPlayerRepository;
+import project.moto.Repository.Events.PublishingRaceRepository;
+import project.moto.Repository.Events.PublishingTeamRepository;
+import project.moto.Repository.Events.PublishingUserRepository;
+import project.moto.Repository.PlayerRepository;
+import project.moto.Repository.RaceRepository;
+import project.moto.Repository.TeamRepository;
+import project.moto.Repository.UserRepository;
+import project.moto.Utils.JdbcUtils;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -28,26 +39,32 @@ public class Main {
         Player player = new Player("Jeremy Clarkson", "1110001110001", 3);
         User user = new User("admin", "admin");
 
+        // every write of the repositories is published, the changes are printed once committed
+        ChangeEventBus bus = new ChangeEventBus(1, 100);
+        printChanges(bus, Player.class);
+        printChanges(bus, Team.class);
+        printChanges(bus, Race.class);
+        printChanges(bus, User.class);
 
-        PlayerDBRepository playerDBRepository = new PlayerDBRepository(props);
+        PlayerRepository playerDBRepository = new PublishingPlayerRepository(new PlayerDBRepository(props), props, bus);
         System.out.println("Toate playerii din db:");
         playerDBRepository.findAll().forEach((key, value) -> {
             System.out.println(key + " => " + value);
         });
 
-        TeamDBRepository teamDBRepository = new TeamDBRepository(props);
+        TeamRepository teamDBRepository = new PublishingTeamRepository(new TeamDBRepository(props), props, bus);
         System.out.println("Toate echipele din db:");
         teamDBRepository.findAll().forEach((key, value) -> {
             System.out.println(key + " => " + value);
         });
 
-        RaceDBRepository raceDBRepository = new RaceDBRepository(props, playerDBRepository);
+        RaceRepository raceDBRepository = new PublishingRaceRepository(new RaceDBRepository(props), props, bus);
         System.out.println("Toate cursele din db:");
         raceDBRepository.findAll().forEach((key, value) -> {
             System.out.println(key + " => " + value);
         });
 
-        UserDBRepository userDBRepository = new UserDBRepository(props);
+        UserRepository userDBRepository = new PublishingUserRepository(new UserDBRepository(props), props, bus);
         System.out.println("Toate userii din db:");
         userDBRepository.findAll().forEach((key, value) -> {
             System.out.println(key + " => " + value);
@@ -74,5 +91,11 @@ public class Main {
             System.out.println(key + " => " + value);
         });
 
+        bus.close();
+        JdbcUtils.closePools();
+    }
+
+    private static <ID, E extends Entity<ID>> void printChanges(ChangeEventBus bus, Class<E> entityType) {
+        bus.subscribe(entityType, events -> events.forEach(event -> System.out.println("Changed: " + event)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package project.moto.Repository.Async;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import project.moto.Utils.ConnectionPool;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking repository calls off the caller's thread.
+ * Each call gets its own virtual thread when the runtime supports them (Java 21+), otherwise the
+ * calls run on a fixed pool of platform threads. Either way at most {@code maxConcurrency} calls
+ * are in flight, which should match the size of the connection pool they draw from.
+ */
+public class AsyncExecutor implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger();
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final boolean virtual;
+
+    /**
+     * @param maxConcurrency - maximum number of repository calls running at the same time
+     */
+    public AsyncExecutor(int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        this.permits = new Semaphore(maxConcurrency, true);
+        ExecutorService virtualExecutor = newVirtualThreadExecutor();
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : Executors.newFixedThreadPool(maxConcurrency, r -> {
+            Thread t = new Thread(r, "moto-async-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        logger.info("Async repository executor using {} threads, max {} concurrent calls",
+                virtual ? "virtual" : "platform", maxConcurrency);
+    }
+
+    /**
+     * @return an executor allowing as many concurrent calls as the pool has connections
+     */
+    public static AsyncExecutor forPool(ConnectionPool pool) {
+        return new AsyncExecutor(pool.getMaxSize());
+    }
+
+    /**
+     * Runs the task asynchronously once a concurrency permit is available
+     * @return a future completed with the result of the task, or exceptionally with the exception it threw
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return task.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Stops accepting calls and waits for the running ones to finish
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS))
+                executor.shutdownNow();
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Looks up Executors.newVirtualThreadPerTaskExecutor reflectively so the project still runs on Java 17
+     * @return the executor, null if virtual threads are not available
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.debug("Virtual threads are not available on Java {}", Runtime.version());
+            return null;
+        }
+    }
+}
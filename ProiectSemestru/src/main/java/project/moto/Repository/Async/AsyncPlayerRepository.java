@@ -0,0 +1,25 @@
+package project.moto.Repository.Async;
+
+import project.moto.Domain.Player;
+import project.moto.Repository.PlayerRepository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over a PlayerRepository
+ */
+public class AsyncPlayerRepository extends AsyncRepository<Integer, Player, PlayerRepository> {
+
+    public AsyncPlayerRepository(PlayerRepository repository, AsyncExecutor executor) {
+        super(repository, executor);
+    }
+
+    public CompletableFuture<List<Player>> findByTeam(Integer teamId) {
+        return executor.submit(() -> repository.findByTeam(teamId));
+    }
+
+    public CompletableFuture<Integer> countByTeam(Integer teamId) {
+        return executor.submit(() -> repository.countByTeam(teamId));
+    }
+}
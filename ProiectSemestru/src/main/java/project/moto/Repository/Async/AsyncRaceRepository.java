@@ -0,0 +1,37 @@
+package project.moto.Repository.Async;
+
+import project.moto.Domain.Race;
+import project.moto.Repository.RaceRepository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over a RaceRepository
+ */
+public class AsyncRaceRepository extends AsyncRepository<Integer, Race, RaceRepository> {
+
+    public AsyncRaceRepository(RaceRepository repository, AsyncExecutor executor) {
+        super(repository, executor);
+    }
+
+    public CompletableFuture<Integer> updateRoster(Race race) {
+        return executor.submit(() -> repository.updateRoster(race));
+    }
+
+    public CompletableFuture<List<Race>> findByEngineType(Integer engineType) {
+        return executor.submit(() -> repository.findByEngineType(engineType));
+    }
+
+    public CompletableFuture<Integer> countByEngineType(Integer engineType) {
+        return executor.submit(() -> repository.countByEngineType(engineType));
+    }
+
+    public CompletableFuture<List<Race>> findByPlayer(Integer playerId) {
+        return executor.submit(() -> repository.findByPlayer(playerId));
+    }
+
+    public CompletableFuture<Integer> countByPlayer(Integer playerId) {
+        return executor.submit(() -> repository.countByPlayer(playerId));
+    }
+}
@@ -0,0 +1,80 @@
+package project.moto.Repository.Async;
+
+import project.moto.Domain.Entity;
+import project.moto.Repository.Page;
+import project.moto.Repository.Repository;
+import project.moto.Repository.SortOrder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Asynchronous facade over a repository, every call returns immediately with a CompletableFuture.
+ * Independent lookups can be started together and combined, e.g. with {@link CompletableFuture#allOf}.
+ * @param <ID> - type of the ids
+ * @param <E> - type of the entities
+ * @param <R> - type of the wrapped repository
+ */
+public class AsyncRepository<ID, E extends Entity<ID>, R extends Repository<ID, E>> {
+
+    protected final R repository;
+    protected final AsyncExecutor executor;
+
+    /**
+     * @param repository - the blocking repository
+     * @param executor - executor shared by the repositories that use the same connection pool
+     */
+    public AsyncRepository(R repository, AsyncExecutor executor) {
+        this.repository = repository;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Optional<E>> findOne(ID id) {
+        return executor.submit(() -> repository.findOne(id));
+    }
+
+    public CompletableFuture<Map<ID, E>> findAll() {
+        return executor.submit(repository::findAll);
+    }
+
+    public CompletableFuture<Page<ID, E>> findPage(ID afterId, int limit, SortOrder sort) {
+        return executor.submit(() -> repository.findPage(afterId, limit, sort));
+    }
+
+    public CompletableFuture<Optional<E>> save(E entity) {
+        return executor.submit(() -> repository.save(entity));
+    }
+
+    public CompletableFuture<Optional<E>> delete(ID id) {
+        return executor.submit(() -> repository.delete(id));
+    }
+
+    public CompletableFuture<Optional<E>> update(E entity) {
+        return executor.submit(() -> repository.update(entity));
+    }
+
+    public CompletableFuture<List<E>> saveAll(Collection<E> entities) {
+        return executor.submit(() -> repository.saveAll(entities));
+    }
+
+    public CompletableFuture<Integer> updateAll(Collection<E> entities) {
+        return executor.submit(() -> repository.updateAll(entities));
+    }
+
+    public CompletableFuture<Integer> deleteAll(Collection<ID> ids) {
+        return executor.submit(() -> repository.deleteAll(ids));
+    }
+
+    /**
+     * Runs any operation of the wrapped repository asynchronously, for queries without a dedicated method
+     * @param operation - the blocking call
+     * @return a future completed with the result of the operation
+     */
+    public <T> CompletableFuture<T> call(Function<? super R, T> operation) {
+        return executor.submit(() -> operation.apply(repository));
+    }
+}
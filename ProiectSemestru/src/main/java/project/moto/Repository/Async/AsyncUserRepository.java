@@ -0,0 +1,21 @@
+package project.moto.Repository.Async;
+
+import project.moto.Domain.User;
+import project.moto.Repository.UserRepository;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over a UserRepository
+ */
+public class AsyncUserRepository extends AsyncRepository<Integer, User, UserRepository> {
+
+    public AsyncUserRepository(UserRepository repository, AsyncExecutor executor) {
+        super(repository, executor);
+    }
+
+    public CompletableFuture<Optional<User>> findByUsername(String username) {
+        return executor.submit(() -> repository.findByUsername(username));
+    }
+}
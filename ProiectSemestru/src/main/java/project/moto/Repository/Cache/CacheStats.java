@@ -0,0 +1,73 @@
+package project.moto.Repository.Cache;
+
+/**
+ * Snapshot of the counters of an {@link EntityCache}
+ */
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long rejections;
+    private final int size;
+
+    public CacheStats(long hits, long misses, long evictions, long expirations, long rejections, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.rejections = rejections;
+        this.size = size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return entries removed to make room for new ones
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return entries dropped because their time to live passed
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * @return candidates the TinyLFU admission filter refused to cache
+     */
+    public long getRejections() {
+        return rejections;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", expirations=" + expirations +
+                ", rejections=" + rejections +
+                ", size=" + size +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                '}';
+    }
+}
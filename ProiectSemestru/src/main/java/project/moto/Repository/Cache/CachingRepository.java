@@ -0,0 +1,156 @@
+package project.moto.Repository.Cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import project.moto.Domain.Entity;
+import project.moto.Repository.Page;
+import project.moto.Repository.Repository;
+import project.moto.Repository.SortOrder;
+import project.moto.Utils.JdbcBatch;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache in front of any repository.
+ * findOne is served from a bounded {@link EntityCache}, misses are loaded from the wrapped repository.
+ * Every write goes to the wrapped repository first and then invalidates the touched ids, so the cache
+ * never serves a value older than the last write made through it. Inside a {@link JdbcBatch#inTransaction}
+ * the ids are invalidated once the transaction commits, a value loaded by another thread before the commit
+ * is then dropped, and findOne reads through to the wrapped repository without caching, so it sees the
+ * uncommitted writes of the transaction and never shares them.
+ * Cached entities are shared between callers, they should be treated as read-only.
+ * @param <ID> - type of the ids
+ * @param <E> - type of the entities
+ */
+public class CachingRepository<ID, E extends Entity<ID>> implements Repository<ID, E> {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final Repository<ID, E> delegate;
+    private final EntityCache<ID, E> cache;
+
+    /**
+     * @param delegate - the repository the entities are loaded from
+     * @param maxSize - maximum number of cached entities
+     * @param policy - eviction policy used once the cache is full
+     * @param ttlMillis - time to live of a cached entity, 0 keeps entities until they are evicted or written
+     */
+    public CachingRepository(Repository<ID, E> delegate, int maxSize, EvictionPolicy policy, long ttlMillis) {
+        this.delegate = delegate;
+        this.cache = new EntityCache<>(maxSize, policy, ttlMillis);
+        logger.info("Caching {} with size {}, policy {}, ttl {}ms", delegate.getClass().getSimpleName(), maxSize, policy, ttlMillis);
+    }
+
+    @Override
+    public Optional<E> findOne(ID id) {
+        if (id == null)
+            throw new IllegalArgumentException("id must not be null");
+        if (JdbcBatch.isInTransaction())
+            return delegate.findOne(id);
+        E cached = cache.get(id);
+        if (cached != null) {
+            logger.trace("Cache hit for {}", id);
+            return Optional.of(cached);
+        }
+        long generation = cache.generation();
+        Optional<E> loaded = delegate.findOne(id);
+        loaded.ifPresent(entity -> cache.put(id, entity, generation));
+        return loaded;
+    }
+
+    @Override
+    public Map<ID, E> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<E> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<E> streamAll(int fetchSize) {
+        return delegate.streamAll(fetchSize);
+    }
+
+    @Override
+    public Page<ID, E> findPage(ID afterId, int limit, SortOrder sort) {
+        return delegate.findPage(afterId, limit, sort);
+    }
+
+    @Override
+    public Optional<E> save(E entity) {
+        Optional<E> saved = delegate.save(entity);
+        if (entity.getId() != null)
+            invalidate(entity.getId());
+        return saved;
+    }
+
+    @Override
+    public Optional<E> delete(ID id) {
+        try {
+            return delegate.delete(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public Optional<E> update(E entity) {
+        try {
+            return delegate.update(entity);
+        } finally {
+            invalidate(entity.getId());
+        }
+    }
+
+    @Override
+    public List<E> saveAll(Collection<E> entities) {
+        List<E> saved = delegate.saveAll(entities);
+        saved.forEach(entity -> invalidate(entity.getId()));
+        return saved;
+    }
+
+    @Override
+    public int updateAll(Collection<E> entities) {
+        try {
+            return delegate.updateAll(entities);
+        } finally {
+            entities.forEach(entity -> invalidate(entity.getId()));
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<ID> ids) {
+        try {
+            return delegate.deleteAll(ids);
+        } finally {
+            ids.forEach(this::invalidate);
+        }
+    }
+
+    /**
+     * Invalidates the id now, or once the transaction the current thread runs commits
+     */
+    private void invalidate(ID id) {
+        JdbcBatch.afterCommit(() -> cache.invalidate(id));
+    }
+
+    /**
+     * Drops every cached entity, for writes made behind the back of this repository
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return hit, miss and eviction counters of the cache
+     */
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+}
@@ -0,0 +1,146 @@
+package project.moto.Repository.Cache;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-memory cache with LRU or TinyLFU eviction and an optional time to live.
+ * All operations are guarded by the cache monitor, they only touch memory so the lock is held briefly.
+ * Invalidations are tracked per stripe of keys, so a write only keeps the loads of keys of the same stripe
+ * that were in flight from being cached.
+ * @param <K> - type of the keys
+ * @param <V> - type of the cached values
+ */
+public class EntityCache<K, V> {
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final int STRIPES = 64;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final EvictionPolicy policy;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final FrequencySketch sketch;
+
+    private final long[] invalidatedAt = new long[STRIPES];
+    private long generation = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+    private long rejections = 0;
+
+    /**
+     * @param maxSize - maximum number of cached entries
+     * @param policy - eviction policy used once the cache is full
+     * @param ttlMillis - time to live of an entry in milliseconds, 0 keeps entries until they are evicted
+     */
+    public EntityCache(int maxSize, EvictionPolicy policy, long ttlMillis) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("Cache size must be positive");
+        this.maxSize = maxSize;
+        this.policy = policy;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.sketch = policy == EvictionPolicy.TINY_LFU ? new FrequencySketch(maxSize) : null;
+    }
+
+    /**
+     * @return the cached value, null if the key is not cached or its entry expired
+     */
+    public synchronized V get(K key) {
+        if (sketch != null)
+            sketch.increment(key);
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (isExpired(entry, System.nanoTime())) {
+            entries.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * @return a token that must be passed to {@link #put} for values loaded after this call
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Caches a value loaded from the database, unless the key, or another key of its stripe, was invalidated
+     * since the given generation (the value could be stale) or the admission policy rejects it
+     */
+    public synchronized void put(K key, V value, long loadedAtGeneration) {
+        if (invalidatedAt[stripe(key)] > loadedAtGeneration)
+            return;
+        long now = System.nanoTime();
+        if (!entries.containsKey(key) && entries.size() >= maxSize && !makeRoom(key, now))
+            return;
+        entries.put(key, new Entry<>(value, ttlNanos > 0 ? now + ttlNanos : Long.MAX_VALUE));
+    }
+
+    public synchronized void invalidate(K key) {
+        invalidatedAt[stripe(key)] = ++generation;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        Arrays.fill(invalidatedAt, ++generation);
+        entries.clear();
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, expirations, rejections, entries.size());
+    }
+
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Frees the least recently used slot: an expired victim is always dropped, a live one only if the
+     * candidate is admitted
+     * @return true if there is room for the candidate
+     */
+    private boolean makeRoom(K candidate, long now) {
+        Map.Entry<K, Entry<V>> victim = entries.entrySet().iterator().next();
+        if (isExpired(victim.getValue(), now)) {
+            entries.remove(victim.getKey());
+            expirations++;
+            return true;
+        }
+        if (sketch != null && sketch.frequency(candidate) <= sketch.frequency(victim.getKey())) {
+            rejections++;
+            return false;
+        }
+        entries.remove(victim.getKey());
+        evictions++;
+        return true;
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ hash >>> 16) & (STRIPES - 1);
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return ttlNanos > 0 && entry.expiresAt - now < 0;
+    }
+}
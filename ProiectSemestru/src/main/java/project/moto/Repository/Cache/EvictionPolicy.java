@@ -0,0 +1,16 @@
+package project.moto.Repository.Cache;
+
+/**
+ * How a full {@link EntityCache} chooses what to keep
+ */
+public enum EvictionPolicy {
+    /**
+     * evicts the least recently used entry
+     */
+    LRU,
+    /**
+     * evicts the least recently used entry, but only admits a new entry when it was requested
+     * more often than the entry it would replace (frequencies are tracked by a count-min sketch)
+     */
+    TINY_LFU
+}
@@ -0,0 +1,61 @@
+package project.moto.Repository.Cache;
+
+/**
+ * Count-min sketch estimating how often a key was requested.
+ * Counters are halved every {@code 10 * capacity} increments so old popularity fades out.
+ * Not thread safe, guarded by the owning {@link EntityCache}.
+ */
+class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions = 0;
+
+    FrequencySketch(int capacity) {
+        int width = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1);
+        this.table = new int[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * Math.max(16, capacity);
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        for (int i = 0; i < DEPTH; i++) {
+            int index = index(hash, i);
+            if (table[i][index] < Integer.MAX_VALUE)
+                table[i][index]++;
+        }
+        if (++additions >= sampleSize)
+            reset();
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++)
+            frequency = Math.min(frequency, table[i][index(hash, i)]);
+        return frequency;
+    }
+
+    private void reset() {
+        for (int[] row : table)
+            for (int i = 0; i < row.length; i++)
+                row[i] >>>= 1;
+        additions /= 2;
+    }
+
+    private int index(int hash, int row) {
+        int h = hash * SEEDS[row];
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 17;
+        hash *= 0xed5ad4bb;
+        return hash ^ (hash >>> 11);
+    }
+}
@@ -3,19 +3,30 @@ package project.moto.Repository.DatasbaseRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import project.moto.Domain.Player;
+import project.moto.Repository.Page;
 import project.moto.Repository.PlayerRepository;
+import project.moto.Repository.SortOrder;
+import project.moto.Utils.JdbcBatch;
 import project.moto.Utils.JdbcUtils;
+import project.moto.Utils.ResultSetStream;
+import project.moto.Utils.RowMapper;
 
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.util.*;
+import java.util.stream.Stream;
 
 
 public class PlayerDBRepository implements PlayerRepository
 {
     private final JdbcUtils dbUtils;
     private static final Logger logger = LogManager.getLogger();
+    private static final RowMapper<Player> PLAYERS = RowMapper.of((result, columns) -> {
+        Player player = new Player(result.getString(columns[1]), result.getString(columns[2]), result.getInt(columns[3]));
+        player.setId(result.getInt(columns[0]));
+        return player;
+    }, "Id", "Name", "Code", "Team");
     public PlayerDBRepository(Properties props) {
         dbUtils = new JdbcUtils(props);
         logger.info("Initialized PlayerDBRepository with properties: {}", props);
@@ -30,27 +41,9 @@ public class PlayerDBRepository implements PlayerRepository
     @Override
     public Optional<Player> findOne(Integer pId) {
         logger.info("Finding Player by ID: " + pId);
-        Connection con = dbUtils.getConnection();
-        try (var preStmt = con.prepareStatement("select * from Player where id = ?")) {
-            preStmt.setInt(1, pId);
-            try (var result = preStmt.executeQuery()) {
-                if (result.next()) {
-                    int id = result.getInt("Id");
-                    String name = result.getString("Name");
-                    String code = result.getString("Code");
-                    Integer team = result.getInt("Team");
-                    Player player = new Player(name, code, team);
-                    player.setId(id);
-                    logger.traceExit("Player found");
-                    return Optional.of(player);
-                }
-            }
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
-        logger.traceExit("Player not found");
-        return Optional.empty();
+        Optional<Player> player = dbUtils.queryOne(PLAYERS.select("Player") + " where Id = ?", PLAYERS.fetcher(), pId);
+        logger.traceExit(player.isPresent() ? "Player found" : "Player not found");
+        return player;
     }
 
     /**
@@ -60,30 +53,71 @@ public class PlayerDBRepository implements PlayerRepository
     @Override
     public Map<Integer,Player> findAll() {
         logger.info("Finding all Players");
-        Connection con = dbUtils.getConnection();
         Map<Integer,Player> data = new HashMap<>();
-        try (var preStmt = con.prepareStatement("select * from Player")) {
-            try (var result = preStmt.executeQuery()) {
-                while (result.next()) {
-                    int id = result.getInt("Id");
-                    String name = result.getString("Name");
-                    String code = result.getString("Code");
-                    Integer team = result.getInt("Team");
-                    Player player = new Player(name, code, team);
-                    player.setId(id);
-                    data.put(id,player);
-                }
-
-            }
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
-
+        dbUtils.query(PLAYERS.select("Player"), PLAYERS.fetcher(), player -> data.put(player.getId(), player));
         logger.traceExit("Found {} Players in database", data.size());
         return data;
     }
 
+    /**
+     * Streams all Players using the fetch size configured in jdbc.fetchSize
+     * @return Stream<Player> - must be closed to release the connection
+     */
+    @Override
+    public Stream<Player> streamAll() {
+        return streamAll(dbUtils.getFetchSize());
+    }
+
+    /**
+     * Streams all Players from an open cursor, rows are mapped only when the stream pulls them
+     * @param fetchSize - number of rows fetched from the database at once
+     * @return Stream<Player> - must be closed to release the connection
+     */
+    @Override
+    public Stream<Player> streamAll(int fetchSize) {
+        logger.info("Streaming all Players with fetch size {}", fetchSize);
+        return dbUtils.streamQuery(PLAYERS.select("Player"), fetchSize, ResultSetStream.rows(PLAYERS.fetcher()));
+    }
+
+    /**
+     * Reads one page of Players ordered by id
+     * @param afterId - id of the last Player of the previous page, null for the first page
+     * @param limit - maximum number of Players in the page
+     * @param sort - direction of the ids
+     * @return Page of Players
+     */
+    @Override
+    public Page<Integer,Player> findPage(Integer afterId, int limit, SortOrder sort) {
+        logger.traceEntry("Finding page of {} Players after {} {}", limit, afterId, sort);
+        List<Player> rows = dbUtils.queryPage(PLAYERS.select("Player"), "Id", afterId, limit, sort, PLAYERS.fetcher());
+        Page<Integer,Player> page = Page.of(rows, limit);
+        logger.traceExit("Found {}", page);
+        return page;
+    }
+
+    /**
+     * Finds the players of a team using the index on Player.Team
+     * @param teamId - id of the team
+     * @return List<Player> - the players of the team, ordered by id
+     */
+    @Override
+    public List<Player> findByTeam(Integer teamId) {
+        logger.traceEntry("Finding Players of team {}", teamId);
+        List<Player> players = dbUtils.queryList(PLAYERS.select("Player") + " where Team = ? order by Id",
+                PLAYERS.fetcher(), teamId);
+        logger.traceExit("Found {} Players", players.size());
+        return players;
+    }
+
+    /**
+     * @param teamId - id of the team
+     * @return the number of players of the team, counted on the index on Player.Team
+     */
+    @Override
+    public int countByTeam(Integer teamId) {
+        return dbUtils.queryCount("select count(*) from Player where Team = ?", teamId);
+    }
+
     /**
      * Save the entity to the database
      * @param entity
@@ -93,8 +127,8 @@ public class PlayerDBRepository implements PlayerRepository
     @Override
     public Optional<Player> save(Player entity) {
         logger.info("Saving Player: {}", entity.getId());
-        Connection con = dbUtils.getConnection();
-        try (var preStmt = con.prepareStatement(
+        try (Connection con = dbUtils.getConnection();
+             var preStmt = con.prepareStatement(
                 "insert into Player (Name, Code, Team) values (?, ?, ?)",
                 PreparedStatement.RETURN_GENERATED_KEYS)) {
             preStmt.setString(1, entity.getName());
@@ -128,10 +162,10 @@ public class PlayerDBRepository implements PlayerRepository
     @Override
     public Optional<Player> delete(Integer pID) {
         logger.info("Deleting Player: {}", pID);
-        Connection con = dbUtils.getConnection();
         Optional<Player> player = findOne(pID);
         if(player.isPresent()) {
-            try (var preStmt = con.prepareStatement("delete from Player where id = ?")) {
+            try (Connection con = dbUtils.getConnection();
+                 var preStmt = con.prepareStatement("delete from Player where id = ?")) {
                 preStmt.setInt(1, pID);
                 preStmt.executeUpdate();
                 logger.traceExit("Player {} deleted", pID);
@@ -153,8 +187,8 @@ public class PlayerDBRepository implements PlayerRepository
     @Override
     public Optional<Player> update(Player entity) {
         logger.info("Updating Player: {}", entity.getId());
-        Connection con = dbUtils.getConnection();
-        try (var preStmt = con.prepareStatement("update Player set Name = ?, Code = ?, Team = ? where id = ?")) {
+        try (Connection con = dbUtils.getConnection();
+             var preStmt = con.prepareStatement("update Player set Name = ?, Code = ?, Team = ? where id = ?")) {
             preStmt.setString(1, entity.getName());
             preStmt.setString(2, entity.getCode());
             preStmt.setInt(3, entity.getTeam());
@@ -168,4 +202,62 @@ public class PlayerDBRepository implements PlayerRepository
         }
 
     }
+
+    /**
+     * Saves all the Players in one transaction, the inserts are sent in batches of jdbc.batchSize
+     * @param entities - entities must be not null
+     * @return List<Player> - the saved Players with their generated ids
+     */
+    @Override
+    public List<Player> saveAll(Collection<Player> entities) {
+        logger.info("Saving {} Players", entities.size());
+        List<Player> players = new ArrayList<>(entities);
+        JdbcBatch.inTransaction(dbUtils, con -> {
+            JdbcBatch.assignIds(players, JdbcBatch.insert(con,
+                    "insert into Player (Name, Code, Team) values (?, ?, ?)", players, dbUtils.getBatchSize(),
+                    (preStmt, player) -> {
+                        preStmt.setString(1, player.getName());
+                        preStmt.setString(2, player.getCode());
+                        preStmt.setInt(3, player.getTeam());
+                    }));
+            return null;
+        });
+        logger.traceExit("Saved {} Players", players.size());
+        return players;
+    }
+
+    /**
+     * Updates all the Players in one transaction, the updates are sent in batches of jdbc.batchSize
+     * @param entities - entities must be not null
+     * @return the number of updated Players
+     */
+    @Override
+    public int updateAll(Collection<Player> entities) {
+        logger.info("Updating {} Players", entities.size());
+        int updated = JdbcBatch.inTransaction(dbUtils, con -> JdbcBatch.execute(con,
+                "update Player set Name = ?, Code = ?, Team = ? where id = ?", entities, dbUtils.getBatchSize(),
+                (preStmt, player) -> {
+                    preStmt.setString(1, player.getName());
+                    preStmt.setString(2, player.getCode());
+                    preStmt.setInt(3, player.getTeam());
+                    preStmt.setInt(4, player.getId());
+                }));
+        logger.traceExit("Updated {} Players", updated);
+        return updated;
+    }
+
+    /**
+     * Deletes the Players with the given ids in one transaction, the deletes are sent in batches of jdbc.batchSize
+     * @param ids - ids must be not null
+     * @return the number of deleted Players
+     */
+    @Override
+    public int deleteAll(Collection<Integer> ids) {
+        logger.info("Deleting {} Players", ids.size());
+        int deleted = JdbcBatch.inTransaction(dbUtils, con -> JdbcBatch.execute(con,
+                "delete from Player where id = ?", ids, dbUtils.getBatchSize(),
+                (preStmt, id) -> preStmt.setInt(1, id)));
+        logger.traceExit("Deleted {} Players", deleted);
+        return deleted;
+    }
 }
@@ -5,24 +5,36 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import project.moto.Domain.Race;
 import project.moto.Domain.Player;
+import project.moto.Repository.Page;
 import project.moto.Repository.RaceRepository;
+import project.moto.Repository.SortOrder;
+import project.moto.Utils.JdbcBatch;
 import project.moto.Utils.JdbcUtils;
+import project.moto.Utils.ResultSetStream;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class RaceDBRepository implements RaceRepository {
 
-    private final PlayerDBRepository playerRepo;
     private final JdbcUtils dbUtils;
     private static final Logger logger = LogManager.getLogger();
+    /**
+     * Every race with its players, one row per race and player: race Id, EngineType, NoPlayers, then player
+     * Id, Name, Code and Team, all null for a race without players. Callers append the filter and the ordering.
+     */
+    public static final String RACES_WITH_PLAYERS =
+            "SELECT r.Id, r.EngineType, r.NoPlayers, p.Id, p.Name, p.Code, p.Team " +
+            "FROM Race r " +
+            "LEFT JOIN PlayerRaces pr ON pr.RaceId = r.Id " +
+            "LEFT JOIN Player p ON p.Id = pr.PlayerId";
 
-    public RaceDBRepository(Properties props, PlayerDBRepository playerRepo) {
+    public RaceDBRepository(Properties props) {
         dbUtils = new JdbcUtils(props);
-        this.playerRepo = playerRepo;
         logger.info("Initialized PlayerDBIRepository with properties: {}", props);
     }
 
@@ -35,41 +47,11 @@ public class RaceDBRepository implements RaceRepository {
     @Override
     public Optional<Race> findOne(Integer rID) {
         logger.traceEntry("findOne race with id {}", rID);
-        Connection con = dbUtils.getConnection();
-        Race race =  new Race(0);
-        try (PreparedStatement preStmt = con.prepareStatement("SELECT * FROM Race WHERE Id = ?")) {
-            preStmt.setInt(1, rID);
-            try (ResultSet result = preStmt.executeQuery()) {
-                if (result.next()) {
-                    Integer engineType = result.getInt("EngineType");
-                    Integer noPlayers = result.getInt("NoPlayers");
-                    race.setEngineType(engineType);
-                    race.setId(rID);
-                    race.setNoPlayers(noPlayers);
-                }
-            }
-        } catch (SQLException e) {
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
-
-        if (race.getId() != null) {
-            try (PreparedStatement preStmt = con.prepareStatement("SELECT PlayerId FROM PlayerRaces WHERE RaceId = ?")) {
-                preStmt.setInt(1, rID);
-                try (ResultSet result = preStmt.executeQuery()) {
-                    List<Player> players = new ArrayList<>();
-                    while (result.next()) {
-                        Integer playerId = result.getInt("PlayerId");
-                        playerRepo.findOne(playerId).ifPresent(players::add);
-                    }
-                    race.setPlayers(players);
-                    logger.traceExit("Race found in Database!");
-                    return Optional.of(race);
-                }
-            } catch (SQLException e) {
-                logger.error(e.getMessage());
-                throw new RuntimeException(e);
-            }
+        Map<Integer,Race> races = loadRaces(" WHERE r.Id = ?", " ORDER BY r.Id", rID);
+        Race race = races.get(rID);
+        if (race != null) {
+            logger.traceExit("Race found in Database!");
+            return Optional.of(race);
         }
         logger.traceExit("Race not found");
         return Optional.empty();
@@ -77,45 +59,172 @@ public class RaceDBRepository implements RaceRepository {
 
     /**
      *  Returns all races
-     * @return Map<Integer,Team> - all teams
+     * @return Map<Integer,Race> - all races
      */
     @Override
     public Map<Integer,Race> findAll() {
         logger.traceEntry("Finding all races");
-        Connection con = dbUtils.getConnection();
-        Map<Integer,Race> data = new HashMap<>();
-        try (PreparedStatement preStmt = con.prepareStatement("SELECT * FROM Race")) {
+        Map<Integer,Race> data = loadRaces("", " ORDER BY r.Id");
+        logger.traceExit("found {} races",data.size());
+        return data;
+    }
+
+    /**
+     * Loads races together with their players using a single joined query instead of
+     * one roster query per race and one player query per roster entry
+     * @param where - optional filter applied on the Race table (alias r), may be empty
+     * @param orderBy - ordering of the races, rows of the same race must stay consecutive
+     * @param params - values bound to the placeholders of the filter
+     * @return Map<Integer,Race> - the loaded races, keyed by id, in the requested order
+     */
+    private Map<Integer,Race> loadRaces(String where, String orderBy, Object... params) {
+        Map<Integer,Race> data = new LinkedHashMap<>();
+        try (Connection con = dbUtils.getConnection();
+             PreparedStatement preStmt = con.prepareStatement(RACES_WITH_PLAYERS + where + orderBy)) {
+            for (int i = 0; i < params.length; i++) {
+                preStmt.setObject(i + 1, params[i]);
+            }
             try (ResultSet result = preStmt.executeQuery()) {
                 while (result.next()) {
-                    Integer raceId = result.getInt("Id");
-                    Integer engineType = result.getInt("EngineType");
-                    Integer noPlayers = result.getInt("NoPlayers");
-                    Race race = new Race(engineType);
-                    race.setId(raceId);
-                    race.setNoPlayers(noPlayers);
-
-                    try (PreparedStatement preStmtPlayers = con.prepareStatement("SELECT PlayerId FROM PlayerRaces WHERE RaceId = ?")) {
-                        preStmtPlayers.setInt(1, raceId);
-                        try (ResultSet resultPlayers = preStmtPlayers.executeQuery()) {
-                            List<Player> players = new ArrayList<>();
-                            while (resultPlayers.next()) {
-                                Integer playerId = resultPlayers.getInt("PlayerId");
-                                playerRepo.findOne(playerId).ifPresent(players::add);
-                            }
-                            race.setPlayers(players);
-                        }
+                    int raceId = result.getInt(1);
+                    Race race = data.get(raceId);
+                    if (race == null) {
+                        race = readRace(result);
+                        data.put(raceId, race);
                     }
-                    data.put(raceId,race);
+                    addPlayer(race, result);
                 }
             }
         } catch (SQLException e) {
             logger.error(e.getMessage());
             throw new RuntimeException(e);
         }
-        logger.traceExit("found {} races",data.size());
         return data;
     }
 
+    /**
+     * Streams all races using the fetch size configured in jdbc.fetchSize
+     * @return Stream<Race> - must be closed to release the connection
+     */
+    @Override
+    public Stream<Race> streamAll() {
+        return streamAll(dbUtils.getFetchSize());
+    }
+
+    /**
+     * Streams all races with their players from one ordered, joined cursor,
+     * only the race currently being assembled is kept in memory
+     * @param fetchSize - number of rows fetched from the database at once
+     * @return Stream<Race> - must be closed to release the connection
+     */
+    @Override
+    public Stream<Race> streamAll(int fetchSize) {
+        logger.info("Streaming all races with fetch size {}", fetchSize);
+        return dbUtils.streamQuery(RACES_WITH_PLAYERS + " ORDER BY r.Id", fetchSize, new RaceFetcher());
+    }
+
+    /**
+     * Reads one page of races ordered by id, with the players of the races of that page only.
+     * The ids of the page are selected with a keyset query on Race, the rosters are joined for those ids.
+     * @param afterId - id of the last race of the previous page, null for the first page
+     * @param limit - maximum number of races in the page
+     * @param sort - direction of the ids
+     * @return Page of races
+     */
+    @Override
+    public Page<Integer,Race> findPage(Integer afterId, int limit, SortOrder sort) {
+        logger.traceEntry("Finding page of {} races after {} {}", limit, afterId, sort);
+        if (limit < 1)
+            throw new IllegalArgumentException("Page limit must be positive");
+        String pageIds = JdbcUtils.keysetQuery("SELECT Id FROM Race", "Id", afterId != null, sort);
+        Object[] params = afterId != null ? new Object[]{afterId, limit + 1} : new Object[]{limit + 1};
+        Map<Integer,Race> races = loadRaces(" WHERE r.Id IN (" + pageIds + ")", " ORDER BY r.Id " + sort, params);
+        Page<Integer,Race> page = Page.of(new ArrayList<>(races.values()), limit);
+        logger.traceExit("Found {}", page);
+        return page;
+    }
+
+    /**
+     * Finds the races of an engine type using the index on Race.EngineType
+     * @param engineType - engine capacity
+     * @return List<Race> - the races with their players, ordered by id
+     */
+    @Override
+    public List<Race> findByEngineType(Integer engineType) {
+        logger.traceEntry("Finding races with engine type {}", engineType);
+        List<Race> races = new ArrayList<>(loadRaces(" WHERE r.EngineType = ?", " ORDER BY r.Id", engineType).values());
+        logger.traceExit("Found {} races", races.size());
+        return races;
+    }
+
+    @Override
+    public int countByEngineType(Integer engineType) {
+        return dbUtils.queryCount("SELECT count(*) FROM Race WHERE EngineType = ?", engineType);
+    }
+
+    /**
+     * Finds the races of a player, the PlayerRaces primary key starts with PlayerId so the lookup is indexed
+     * @param playerId - id of the player
+     * @return List<Race> - the races with their full rosters, ordered by id
+     */
+    @Override
+    public List<Race> findByPlayer(Integer playerId) {
+        logger.traceEntry("Finding races of player {}", playerId);
+        List<Race> races = new ArrayList<>(loadRaces(" WHERE r.Id IN (SELECT RaceId FROM PlayerRaces WHERE PlayerId = ?)",
+                " ORDER BY r.Id", playerId).values());
+        logger.traceExit("Found {} races", races.size());
+        return races;
+    }
+
+    @Override
+    public int countByPlayer(Integer playerId) {
+        return dbUtils.queryCount("SELECT count(*) FROM PlayerRaces WHERE PlayerId = ?", playerId);
+    }
+
+    private static Race readRace(ResultSet result) throws SQLException {
+        Race race = new Race(result.getInt(2));
+        race.setId(result.getInt(1));
+        race.setNoPlayers(result.getInt(3));
+        return race;
+    }
+
+    private static void addPlayer(Race race, ResultSet result) throws SQLException {
+        int playerId = result.getInt(4);
+        if (!result.wasNull()) {
+            Player player = new Player(result.getString(5), result.getString(6), result.getInt(7));
+            player.setId(playerId);
+            race.getPlayers().add(player);
+        }
+    }
+
+    /**
+     * Groups consecutive rows of the joined query into races.
+     * The first row of the next race stays under the cursor until that race is requested.
+     */
+    private static final class RaceFetcher implements ResultSetStream.Fetcher<Race> {
+        private boolean pending = false;
+        private boolean exhausted = false;
+
+        @Override
+        public Race next(ResultSet result) throws SQLException {
+            if (exhausted || (!pending && !result.next())) {
+                exhausted = true;
+                return null;
+            }
+            Race race = readRace(result);
+            addPlayer(race, result);
+            while (result.next()) {
+                if (result.getInt(1) != race.getId()) {
+                    pending = true;
+                    return race;
+                }
+                addPlayer(race, result);
+            }
+            exhausted = true;
+            return race;
+        }
+    }
+
 
     /**
      * Saves race to the database stops commits to ensure data consistency
@@ -125,56 +234,30 @@ public class RaceDBRepository implements RaceRepository {
      */
     public Optional<Race> save(Race race) {
         logger.traceEntry("saving race {}", race);
-        Connection con = dbUtils.getConnection();
-        boolean oldAutoCommit = true;
-        try {
-            oldAutoCommit = con.getAutoCommit();
-            con.setAutoCommit(false);
-
+        boolean saved = JdbcBatch.inTransaction(dbUtils, con -> {
             // Insert into Race table
             try (PreparedStatement preStmt = con.prepareStatement(
                     "INSERT INTO Race (EngineType, NoPlayers) VALUES (?, ?)",
                     PreparedStatement.RETURN_GENERATED_KEYS)) {
                 preStmt.setInt(1, race.getEngineType());
                 preStmt.setInt(2, race.getNoPlayers());
-                int result = preStmt.executeUpdate();
-                if (result > 0) {
-                    try (ResultSet generatedKeys = preStmt.getGeneratedKeys()) {
-                        if (generatedKeys.next()) {
-                            race.setId(generatedKeys.getInt(1));
-                        }
-                    }
-                    // Insert into PlayerRaces
-                    for (Player player : race.getPlayers()) {
-                        try (PreparedStatement preStmtPlayers = con.prepareStatement(
-                                "INSERT INTO PlayerRaces (PlayerId, RaceId) VALUES (?, ?)")) {
-                            preStmtPlayers.setInt(1, player.getId());
-                            preStmtPlayers.setInt(2, race.getId());
-                            preStmtPlayers.executeUpdate();
-                        }
-                    }
-                    con.commit();
-                    logger.traceExit("Race saved with id {}", race.getId());
-                    return Optional.of(race);
+                if (preStmt.executeUpdate() == 0)
+                    return false;
+                try (ResultSet generatedKeys = preStmt.getGeneratedKeys()) {
+                    if (generatedKeys.next())
+                        JdbcBatch.assignIds(List.of(race), List.of(generatedKeys.getInt(1)));
                 }
             }
+            // Insert into PlayerRaces
+            insertRosters(con, List.of(race));
+            return true;
+        });
+        if (!saved) {
             logger.traceExit("Race not Added");
             return Optional.empty();
-        } catch (SQLException e) {
-            try {
-                con.rollback();
-            } catch (SQLException ex) {
-                logger.error(ex.getMessage());
-            }
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        } finally {
-            try {
-                con.setAutoCommit(oldAutoCommit);
-            } catch (SQLException e) {
-                logger.error(e.getMessage());
-            }
         }
+        logger.traceExit("Race saved with id {}", race.getId());
+        return Optional.of(race);
     }
 
     /**
@@ -185,47 +268,28 @@ public class RaceDBRepository implements RaceRepository {
      */
     public Optional<Race> delete(Integer raceId) {
         logger.traceEntry("deleting race with id {}", raceId);
-        Connection con = dbUtils.getConnection();
-        Optional<Race> race = findOne(raceId);
-        if (race.isPresent()) {
-            boolean oldAutoCommit = true;
-            try {
-                oldAutoCommit = con.getAutoCommit();
-                con.setAutoCommit(false);
-
-                // Deletes from PlayerRaces
-                try (PreparedStatement preStmt = con.prepareStatement("DELETE FROM PlayerRaces WHERE RaceId = ?")) {
-                    preStmt.setInt(1, raceId);
-                    preStmt.executeUpdate();
-                }
-
-                // Deletes from Race
-                try (PreparedStatement preStmt = con.prepareStatement("DELETE FROM Race WHERE Id = ?")) {
-                    preStmt.setInt(1, raceId);
-                    preStmt.executeUpdate();
-                }
-
-                con.commit();
-                logger.traceExit("Race deleted with id {}", raceId);
-                return race;
-            } catch (SQLException e) {
-                try {
-                    con.rollback();
-                } catch (SQLException ex) {
-                    logger.error(ex.getMessage());
-                }
-                logger.error(e.getMessage());
-                throw new RuntimeException(e);
-            } finally {
-                try {
-                    con.setAutoCommit(oldAutoCommit);
-                } catch (SQLException e) {
-                    logger.error(e.getMessage());
-                }
+        Optional<Race> race = JdbcBatch.inTransaction(dbUtils, con -> {
+            Optional<Race> found = findOne(raceId);
+            if (found.isEmpty())
+                return found;
+            // Deletes from PlayerRaces
+            try (PreparedStatement preStmt = con.prepareStatement("DELETE FROM PlayerRaces WHERE RaceId = ?")) {
+                preStmt.setInt(1, raceId);
+                preStmt.executeUpdate();
+            }
+            // Deletes from Race
+            try (PreparedStatement preStmt = con.prepareStatement("DELETE FROM Race WHERE Id = ?")) {
+                preStmt.setInt(1, raceId);
+                preStmt.executeUpdate();
             }
+            return found;
+        });
+        if (race.isEmpty()) {
+            logger.traceExit("Race not Deleted");
+            return race;
         }
-        logger.traceExit("Race not Deleted");
-        return Optional.empty();
+        logger.traceExit("Race deleted with id {}", raceId);
+        return race;
     }
 
     /**
@@ -234,56 +298,166 @@ public class RaceDBRepository implements RaceRepository {
      * @return Optional<Race> - null if the entity was not updated
      */
     public Optional<Race> update(Race race) {
-        logger.traceEntry("updating race {}", race);
-        Connection con = dbUtils.getConnection();
-        boolean oldAutoCommit = true;
-        try {
-            oldAutoCommit = con.getAutoCommit();
-            con.setAutoCommit(false);
+        return updateRoster(race) > 0 ? Optional.of(race) : Optional.empty();
+    }
 
+    /**
+     * Updates Race in the database and applies only the roster changes: players missing from the stored
+     * roster are inserted, players no longer in the race are deleted, unchanged entries are not touched
+     * @param race - entity must be not null
+     * @return the number of Race and PlayerRaces rows written, 0 if the race does not exist
+     */
+    @Override
+    public int updateRoster(Race race) {
+        logger.traceEntry("updating race {}", race);
+        int touched = JdbcBatch.inTransaction(dbUtils, con -> {
             try (PreparedStatement preStmt = con.prepareStatement(
                     "UPDATE Race SET EngineType = ?, NoPlayers = ? WHERE Id = ?")) {
                 preStmt.setInt(1, race.getEngineType());
                 preStmt.setInt(2, race.getNoPlayers());
                 preStmt.setInt(3, race.getId());
-                int result = preStmt.executeUpdate();
-                if (result > 0) {
-                    try (PreparedStatement preStmtDel = con.prepareStatement(
-                            "DELETE FROM PlayerRaces WHERE RaceId = ?")) {
-                        preStmtDel.setInt(1, race.getId());
-                        preStmtDel.executeUpdate();
-                    }
-
-                    for (Player player : race.getPlayers()) {
-                        try (PreparedStatement preStmtPlayers = con.prepareStatement(
-                                "INSERT INTO PlayerRaces (PlayerId, RaceId) VALUES (?, ?)")) {
-                            preStmtPlayers.setInt(1, player.getId());
-                            preStmtPlayers.setInt(2, race.getId());
-                            preStmtPlayers.executeUpdate();
-                        }
-                    }
-
-                    con.commit();
-                    logger.traceExit("Race updated with id {}", race.getId());
-                    return Optional.of(race);
-                }
+                if (preStmt.executeUpdate() == 0)
+                    return 0;
             }
+            return 1 + applyRosterChanges(con, List.of(race));
+        });
+        if (touched == 0) {
             logger.traceExit("Race not Updated");
-            return Optional.empty();
-        } catch (SQLException e) {
-            try {
-                con.rollback();
-            } catch (SQLException ex) {
-                logger.error(ex.getMessage());
+            return 0;
+        }
+        logger.trace("Race updated with id {}, {} rows touched", race.getId(), touched);
+        logger.traceExit();
+        return touched;
+    }
+
+    /**
+     * Saves all the races and their rosters in one transaction, using batches of jdbc.batchSize statements
+     * @param entities - entities must be not null
+     * @return List<Race> - the saved races with their generated ids
+     */
+    @Override
+    public List<Race> saveAll(Collection<Race> entities) {
+        logger.traceEntry("saving {} races", entities.size());
+        List<Race> races = new ArrayList<>(entities);
+        JdbcBatch.inTransaction(dbUtils, con -> {
+            List<Integer> ids = JdbcBatch.insert(con, "INSERT INTO Race (EngineType, NoPlayers) VALUES (?, ?)",
+                    races, dbUtils.getBatchSize(), (preStmt, race) -> {
+                        preStmt.setInt(1, race.getEngineType());
+                        preStmt.setInt(2, race.getNoPlayers());
+                    });
+            JdbcBatch.assignIds(races, ids);
+            return insertRosters(con, races);
+        });
+        logger.traceExit("Saved {} races", races.size());
+        return races;
+    }
+
+    /**
+     * Updates all the races and applies their roster changes in one transaction, using batches of jdbc.batchSize statements
+     * @param entities - entities must be not null
+     * @return the number of updated races
+     */
+    @Override
+    public int updateAll(Collection<Race> entities) {
+        logger.traceEntry("updating {} races", entities.size());
+        int updated = JdbcBatch.inTransaction(dbUtils, con -> {
+            int races = JdbcBatch.execute(con, "UPDATE Race SET EngineType = ?, NoPlayers = ? WHERE Id = ?",
+                    entities, dbUtils.getBatchSize(), (preStmt, race) -> {
+                        preStmt.setInt(1, race.getEngineType());
+                        preStmt.setInt(2, race.getNoPlayers());
+                        preStmt.setInt(3, race.getId());
+                    });
+            int rows = applyRosterChanges(con, entities);
+            logger.trace("Updated {} rosters touching {} rows", entities.size(), rows);
+            return races;
+        });
+        logger.traceExit("Updated {} races", updated);
+        return updated;
+    }
+
+    /**
+     * Deletes the races with the given ids and their rosters in one transaction
+     * @param ids - ids must be not null
+     * @return the number of deleted races
+     */
+    @Override
+    public int deleteAll(Collection<Integer> ids) {
+        logger.traceEntry("deleting {} races", ids.size());
+        int deleted = JdbcBatch.inTransaction(dbUtils, con -> {
+            JdbcBatch.execute(con, "DELETE FROM PlayerRaces WHERE RaceId = ?", ids, dbUtils.getBatchSize(),
+                    (preStmt, id) -> preStmt.setInt(1, id));
+            return JdbcBatch.execute(con, "DELETE FROM Race WHERE Id = ?", ids, dbUtils.getBatchSize(),
+                    (preStmt, id) -> preStmt.setInt(1, id));
+        });
+        logger.traceExit("Deleted {} races", deleted);
+        return deleted;
+    }
+
+    /**
+     * Inserts the PlayerRaces rows of the given races as one batched statement
+     * @return the number of inserted rows
+     */
+    private int insertRosters(Connection con, Collection<Race> races) throws SQLException {
+        List<int[]> rows = new ArrayList<>();
+        for (Race race : races) {
+            for (Player player : race.getPlayers()) {
+                rows.add(new int[]{player.getId(), race.getId()});
             }
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        } finally {
-            try {
-                con.setAutoCommit(oldAutoCommit);
-            } catch (SQLException e) {
-                logger.error(e.getMessage());
+        }
+        return insertRosterRows(con, rows);
+    }
+
+    /**
+     * Compares the rosters of the given races with the stored ones and writes only the difference,
+     * as one batched delete and one batched insert. Races that do not exist are skipped.
+     * @return the number of PlayerRaces rows deleted or inserted
+     */
+    private int applyRosterChanges(Connection con, Collection<Race> races) throws SQLException {
+        List<int[]> removed = new ArrayList<>();
+        List<int[]> added = new ArrayList<>();
+        try (PreparedStatement preStmt = con.prepareStatement(
+                "SELECT pr.PlayerId FROM Race r LEFT JOIN PlayerRaces pr ON pr.RaceId = r.Id WHERE r.Id = ?")) {
+            for (Race race : races) {
+                preStmt.setInt(1, race.getId());
+                Set<Integer> stored = new HashSet<>();
+                boolean exists = false;
+                try (ResultSet result = preStmt.executeQuery()) {
+                    while (result.next()) {
+                        exists = true;
+                        int playerId = result.getInt(1);
+                        if (!result.wasNull())
+                            stored.add(playerId);
+                    }
+                }
+                if (!exists)
+                    continue;
+                Set<Integer> wanted = new LinkedHashSet<>();
+                for (Player player : race.getPlayers()) {
+                    wanted.add(player.getId());
+                }
+                for (Integer playerId : stored) {
+                    if (!wanted.contains(playerId))
+                        removed.add(new int[]{playerId, race.getId()});
+                }
+                for (Integer playerId : wanted) {
+                    if (!stored.contains(playerId))
+                        added.add(new int[]{playerId, race.getId()});
+                }
             }
         }
+        int touched = JdbcBatch.execute(con, "DELETE FROM PlayerRaces WHERE PlayerId = ? AND RaceId = ?",
+                removed, dbUtils.getBatchSize(), (preStmt, row) -> {
+                    preStmt.setInt(1, row[0]);
+                    preStmt.setInt(2, row[1]);
+                });
+        return touched + insertRosterRows(con, added);
+    }
+
+    private int insertRosterRows(Connection con, List<int[]> rows) throws SQLException {
+        return JdbcBatch.execute(con, "INSERT INTO PlayerRaces (PlayerId, RaceId) VALUES (?, ?)",
+                rows, dbUtils.getBatchSize(), (preStmt, row) -> {
+                    preStmt.setInt(1, row[0]);
+                    preStmt.setInt(2, row[1]);
+                });
     }
-}
\ No newline at end of file
+}
@@ -3,16 +3,27 @@ package project.moto.Repository.DatasbaseRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import project.moto.Domain.Team;
+import project.moto.Repository.Page;
+import project.moto.Repository.SortOrder;
 import project.moto.Repository.TeamRepository;
+import project.moto.Utils.JdbcBatch;
 import project.moto.Utils.JdbcUtils;
+import project.moto.Utils.ResultSetStream;
+import project.moto.Utils.RowMapper;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class TeamDBRepository implements TeamRepository {
     private final JdbcUtils dbUtils;
     private static final Logger logger = LogManager.getLogger();
+    private static final RowMapper<Team> TEAMS = RowMapper.of((result, columns) -> {
+        Team team = new Team(result.getString(columns[1]));
+        team.setId(result.getInt(columns[0]));
+        return team;
+    }, "Id", "Name");
     public TeamDBRepository(Properties props) {
         this.dbUtils = new JdbcUtils(props);
         logger.info("Initialized TeamDBRepository with properties: {}", props);
@@ -27,25 +38,9 @@ public class TeamDBRepository implements TeamRepository {
      */
     @Override
     public Optional<Team> findOne(Integer tID) {
-        Connection con = dbUtils.getConnection();
-        try (var preStmt = con.prepareStatement("select * from Team where id = ?")) {
-            preStmt.setInt(1, tID);
-            try (var result = preStmt.executeQuery()) {
-                if (result.next()) {
-                    int id = result.getInt("Id");
-                    String name = result.getString("Name");
-                    Team team = new Team(name);
-                    team.setId(id);
-                    logger.traceExit("Team Found");
-                    return Optional.of(team);
-                }
-            }
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
-        logger.traceExit("Team not found");
-        return Optional.empty();
+        Optional<Team> team = dbUtils.queryOne(TEAMS.select("Team") + " where Id = ?", TEAMS.fetcher(), tID);
+        logger.traceExit(team.isPresent() ? "Team Found" : "Team not found");
+        return team;
     }
 
     /**
@@ -55,26 +50,49 @@ public class TeamDBRepository implements TeamRepository {
     @Override
     public Map<Integer,Team> findAll() {
         logger.info("Finding Teams from database");
-        Connection con = dbUtils.getConnection();
         Map<Integer,Team> data = new HashMap<>();
-        try (var preStmt = con.prepareStatement("select * from Team")) {
-            try (var result = preStmt.executeQuery()) {
-                while (result.next()) {
-                    int id = result.getInt("id");
-                    String name = result.getString("Name");
-                    Team team = new Team(name);
-                    team.setId(id);
-                    data.put(id,team);
-                }
-                logger.traceExit("Found {} Teams",data.size());
-                return data;
-            }
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
+        dbUtils.query(TEAMS.select("Team"), TEAMS.fetcher(), team -> data.put(team.getId(), team));
+        logger.traceExit("Found {} Teams",data.size());
+        return data;
+    }
+
+    /**
+     * Streams all Teams using the fetch size configured in jdbc.fetchSize
+     * @return Stream<Team> - must be closed to release the connection
+     */
+    @Override
+    public Stream<Team> streamAll() {
+        return streamAll(dbUtils.getFetchSize());
+    }
+
+    /**
+     * Streams all Teams from an open cursor, rows are mapped only when the stream pulls them
+     * @param fetchSize - number of rows fetched from the database at once
+     * @return Stream<Team> - must be closed to release the connection
+     */
+    @Override
+    public Stream<Team> streamAll(int fetchSize) {
+        logger.info("Streaming all Teams with fetch size {}", fetchSize);
+        return dbUtils.streamQuery(TEAMS.select("Team"), fetchSize, ResultSetStream.rows(TEAMS.fetcher()));
     }
 
+    /**
+     * Reads one page of Teams ordered by id
+     * @param afterId - id of the last Team of the previous page, null for the first page
+     * @param limit - maximum number of Teams in the page
+     * @param sort - direction of the ids
+     * @return Page of Teams
+     */
+    @Override
+    public Page<Integer,Team> findPage(Integer afterId, int limit, SortOrder sort) {
+        logger.traceEntry("Finding page of {} Teams after {} {}", limit, afterId, sort);
+        List<Team> rows = dbUtils.queryPage(TEAMS.select("Team"), "Id", afterId, limit, sort, TEAMS.fetcher());
+        Page<Integer,Team> page = Page.of(rows, limit);
+        logger.traceExit("Found {}", page);
+        return page;
+    }
+
+
     /**
      * Save a Team to the database
      * @param entity
@@ -84,8 +102,8 @@ public class TeamDBRepository implements TeamRepository {
     @Override
     public Optional<Team> save(Team entity) {
         logger.traceEntry("saving team {} ", entity.getId());
-        Connection con = dbUtils.getConnection();
-        try (var preStmt = con.prepareStatement(
+        try (Connection con = dbUtils.getConnection();
+             var preStmt = con.prepareStatement(
                 "insert into Team (Name) values (?)",PreparedStatement.RETURN_GENERATED_KEYS)) {
             preStmt.setString(1, entity.getName());
             var result = preStmt.executeUpdate();
@@ -115,10 +133,10 @@ public class TeamDBRepository implements TeamRepository {
     @Override
     public Optional<Team> delete(Integer id) {
         logger.traceEntry("deleting team {} ", id);
-        Connection con = dbUtils.getConnection();
         Optional<Team> team = findOne(id);
         if(team.isPresent()) {
-            try (var preStmt = con.prepareStatement("delete from Team where id = ?")) {
+            try (Connection con = dbUtils.getConnection();
+                 var preStmt = con.prepareStatement("delete from Team where id = ?")) {
                 preStmt.setInt(1, id);
                 preStmt.executeUpdate();
                 logger.traceExit("Deleted team {}", id);
@@ -141,8 +159,8 @@ public class TeamDBRepository implements TeamRepository {
     @Override
     public Optional<Team> update(Team entity) {
         logger.traceEntry("Updating team {} ", entity.getId());
-        Connection con = dbUtils.getConnection();
-        try (var preStmt = con.prepareStatement("update Team set Name = ? where id = ?")) {
+        try (Connection con = dbUtils.getConnection();
+             var preStmt = con.prepareStatement("update Team set Name = ? where id = ?")) {
             preStmt.setString(1, entity.getName());
             preStmt.setInt(2, entity.getId());
             preStmt.executeUpdate();
@@ -154,4 +172,58 @@ public class TeamDBRepository implements TeamRepository {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Saves all the Teams in one transaction, the inserts are sent in batches of jdbc.batchSize
+     * @param entities - entities must be not null
+     * @return List<Team> - the saved Teams with their generated ids
+     */
+    @Override
+    public List<Team> saveAll(Collection<Team> entities) {
+        logger.info("Saving {} Teams", entities.size());
+        List<Team> teams = new ArrayList<>(entities);
+        JdbcBatch.inTransaction(dbUtils, con -> {
+            JdbcBatch.assignIds(teams, JdbcBatch.insert(con,
+                    "insert into Team (Name) values (?)", teams, dbUtils.getBatchSize(),
+                    (preStmt, team) -> {
+                        preStmt.setString(1, team.getName());
+                    }));
+            return null;
+        });
+        logger.traceExit("Saved {} Teams", teams.size());
+        return teams;
+    }
+
+    /**
+     * Updates all the Teams in one transaction, the updates are sent in batches of jdbc.batchSize
+     * @param entities - entities must be not null
+     * @return the number of updated Teams
+     */
+    @Override
+    public int updateAll(Collection<Team> entities) {
+        logger.info("Updating {} Teams", entities.size());
+        int updated = JdbcBatch.inTransaction(dbUtils, con -> JdbcBatch.execute(con,
+                "update Team set Name = ? where id = ?", entities, dbUtils.getBatchSize(),
+                (preStmt, team) -> {
+                    preStmt.setString(1, team.getName());
+                    preStmt.setInt(2, team.getId());
+                }));
+        logger.traceExit("Updated {} Teams", updated);
+        return updated;
+    }
+
+    /**
+     * Deletes the Teams with the given ids in one transaction, the deletes are sent in batches of jdbc.batchSize
+     * @param ids - ids must be not null
+     * @return the number of deleted Teams
+     */
+    @Override
+    public int deleteAll(Collection<Integer> ids) {
+        logger.info("Deleting {} Teams", ids.size());
+        int deleted = JdbcBatch.inTransaction(dbUtils, con -> JdbcBatch.execute(con,
+                "delete from Team where id = ?", ids, dbUtils.getBatchSize(),
+                (preStmt, id) -> preStmt.setInt(1, id)));
+        logger.traceExit("Deleted {} Teams", deleted);
+        return deleted;
+    }
 }
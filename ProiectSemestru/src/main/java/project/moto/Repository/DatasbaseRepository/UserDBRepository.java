@@ -3,20 +3,34 @@ package project.moto.Repository.DatasbaseRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import project.moto.Domain.User;
+import project.moto.Repository.Page;
+import project.moto.Repository.SortOrder;
 import project.moto.Repository.UserRepository;
+import project.moto.Utils.JdbcBatch;
 import project.moto.Utils.JdbcUtils;
+import project.moto.Utils.ResultSetStream;
+import project.moto.Utils.RowMapper;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.stream.Stream;
 
 public class UserDBRepository implements UserRepository {
 
     private final JdbcUtils dbUtils;
     private static final Logger logger = LogManager.getLogger();
+    private static final RowMapper<User> USERS = RowMapper.of((result, columns) -> {
+        User user = new User(result.getString(columns[1]), result.getString(columns[2]));
+        user.setId(result.getInt(columns[0]));
+        return user;
+    }, "Id", "Username", "Password");
     public UserDBRepository(Properties props) {
         this.dbUtils = new JdbcUtils(props);
         logger.info("Initialized TeamDBRepository with properties: {}", props);
@@ -32,26 +46,9 @@ public class UserDBRepository implements UserRepository {
     @Override
     public Optional<User> findOne(Integer pId) {
         logger.info("Finding User by ID: " + pId);
-        Connection con = dbUtils.getConnection();
-        try (var preStmt = con.prepareStatement("select * from User where id = ?")) {
-            preStmt.setInt(1, pId);
-            try (var result = preStmt.executeQuery()) {
-                if (result.next()) {
-                    int id = result.getInt("Id");
-                    String username = result.getString("Username");
-                    String password = result.getString("Password");
-                    User user = new User(username,password);
-                    user.setId(id);
-                    logger.traceExit("user found");
-                    return Optional.of(user);
-                }
-            }
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
-        logger.traceExit("User not found");
-        return Optional.empty();
+        Optional<User> user = dbUtils.queryOne(USERS.select("User") + " where Id = ?", USERS.fetcher(), pId);
+        logger.traceExit(user.isPresent() ? "user found" : "User not found");
+        return user;
     }
 
     /**
@@ -61,29 +58,49 @@ public class UserDBRepository implements UserRepository {
     @Override
     public Map<Integer,User> findAll() {
         logger.info("Finding all Users");
-        Connection con = dbUtils.getConnection();
         Map<Integer,User> data = new HashMap<>();
-        try (var preStmt = con.prepareStatement("select * from User")) {
-            try (var result = preStmt.executeQuery()) {
-                while (result.next()) {
-                    int id = result.getInt("Id");
-                    String username = result.getString("Username");
-                    String password = result.getString("Password");
-                    User user = new User(username,password);
-                    user.setId(id);
-                    data.put(id,user);
-                }
-
-            }
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
-
+        dbUtils.query(USERS.select("User"), USERS.fetcher(), user -> data.put(user.getId(), user));
         logger.traceExit("Found {} Users in database", data.size());
         return data;
     }
 
+    /**
+     * Streams all Users using the fetch size configured in jdbc.fetchSize
+     * @return Stream<User> - must be closed to release the connection
+     */
+    @Override
+    public Stream<User> streamAll() {
+        return streamAll(dbUtils.getFetchSize());
+    }
+
+    /**
+     * Streams all Users from an open cursor, rows are mapped only when the stream pulls them
+     * @param fetchSize - number of rows fetched from the database at once
+     * @return Stream<User> - must be closed to release the connection
+     */
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        logger.info("Streaming all Users with fetch size {}", fetchSize);
+        return dbUtils.streamQuery(USERS.select("User"), fetchSize, ResultSetStream.rows(USERS.fetcher()));
+    }
+
+    /**
+     * Reads one page of Users ordered by id
+     * @param afterId - id of the last User of the previous page, null for the first page
+     * @param limit - maximum number of Users in the page
+     * @param sort - direction of the ids
+     * @return Page of Users
+     */
+    @Override
+    public Page<Integer,User> findPage(Integer afterId, int limit, SortOrder sort) {
+        logger.traceEntry("Finding page of {} Users after {} {}", limit, afterId, sort);
+        List<User> rows = dbUtils.queryPage(USERS.select("User"), "Id", afterId, limit, sort, USERS.fetcher());
+        Page<Integer,User> page = Page.of(rows, limit);
+        logger.traceExit("Found {}", page);
+        return page;
+    }
+
+
     /**
      * Save the entity to the database
      * @param entity
@@ -93,8 +110,8 @@ public class UserDBRepository implements UserRepository {
     @Override
     public Optional<User> save(User entity) {
         logger.info("Saving User: {}", entity.getId());
-        Connection con = dbUtils.getConnection();
-        try (var preStmt = con.prepareStatement(
+        try (Connection con = dbUtils.getConnection();
+             var preStmt = con.prepareStatement(
                 "insert into User (Username, Password) values (?, ?)",
                 PreparedStatement.RETURN_GENERATED_KEYS)) {
             preStmt.setString(1, entity.getUsername());
@@ -127,10 +144,10 @@ public class UserDBRepository implements UserRepository {
     @Override
     public Optional<User> delete(Integer pID) {
         logger.info("Deleting User: {}", pID);
-        Connection con = dbUtils.getConnection();
         Optional<User> user = findOne(pID);
         if(user.isPresent()) {
-            try (var preStmt = con.prepareStatement("delete from User where id = ?")) {
+            try (Connection con = dbUtils.getConnection();
+                 var preStmt = con.prepareStatement("delete from User where id = ?")) {
                 preStmt.setInt(1, pID);
                 preStmt.executeUpdate();
                 logger.traceExit("User {} deleted", pID);
@@ -152,8 +169,8 @@ public class UserDBRepository implements UserRepository {
     @Override
     public Optional<User> update(User entity) {
         logger.info("Updating User: {}", entity.getId());
-        Connection con = dbUtils.getConnection();
-        try (var preStmt = con.prepareStatement("update User set Username = ?, Password = ? where id = ?")) {
+        try (Connection con = dbUtils.getConnection();
+             var preStmt = con.prepareStatement("update User set Username = ?, Password = ? where id = ?")) {
             preStmt.setString(1, entity.getUsername());
             preStmt.setString(2, entity.getPassword());
             preStmt.setInt(3, entity.getId());
@@ -170,24 +187,64 @@ public class UserDBRepository implements UserRepository {
     @Override
     public Optional<User> findByUsername(String username) {
         logger.info("Finding User by Username: " + username);
-        Connection con = dbUtils.getConnection();
-        try (var preStmt = con.prepareStatement("select * from User where Username = ?")) {
-            preStmt.setString(1, username);
-            try (var result = preStmt.executeQuery()) {
-                if (result.next()) {
-                    int id = result.getInt("Id");
-                    String password = result.getString("Password");
-                    User user = new User(username,password);
-                    user.setId(id);
-                    logger.traceExit("user found");
-                    return Optional.of(user);
-                }
-            }
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
-        logger.traceExit("User not found");
-        return Optional.empty();
+        Optional<User> user = dbUtils.queryOne(USERS.select("User") + " where Username = ?", USERS.fetcher(), username);
+        logger.traceExit(user.isPresent() ? "user found" : "User not found");
+        return user;
+    }
+
+    /**
+     * Saves all the Users in one transaction, the inserts are sent in batches of jdbc.batchSize
+     * @param entities - entities must be not null
+     * @return List<User> - the saved Users with their generated ids
+     */
+    @Override
+    public List<User> saveAll(Collection<User> entities) {
+        logger.info("Saving {} Users", entities.size());
+        List<User> users = new ArrayList<>(entities);
+        JdbcBatch.inTransaction(dbUtils, con -> {
+            JdbcBatch.assignIds(users, JdbcBatch.insert(con,
+                    "insert into User (Username, Password) values (?, ?)", users, dbUtils.getBatchSize(),
+                    (preStmt, user) -> {
+                        preStmt.setString(1, user.getUsername());
+                        preStmt.setString(2, user.getPassword());
+                    }));
+            return null;
+        });
+        logger.traceExit("Saved {} Users", users.size());
+        return users;
+    }
+
+    /**
+     * Updates all the Users in one transaction, the updates are sent in batches of jdbc.batchSize
+     * @param entities - entities must be not null
+     * @return the number of updated Users
+     */
+    @Override
+    public int updateAll(Collection<User> entities) {
+        logger.info("Updating {} Users", entities.size());
+        int updated = JdbcBatch.inTransaction(dbUtils, con -> JdbcBatch.execute(con,
+                "update User set Username = ?, Password = ? where id = ?", entities, dbUtils.getBatchSize(),
+                (preStmt, user) -> {
+                    preStmt.setString(1, user.getUsername());
+                    preStmt.setString(2, user.getPassword());
+                    preStmt.setInt(3, user.getId());
+                }));
+        logger.traceExit("Updated {} Users", updated);
+        return updated;
+    }
+
+    /**
+     * Deletes the Users with the given ids in one transaction, the deletes are sent in batches of jdbc.batchSize
+     * @param ids - ids must be not null
+     * @return the number of deleted Users
+     */
+    @Override
+    public int deleteAll(Collection<Integer> ids) {
+        logger.info("Deleting {} Users", ids.size());
+        int deleted = JdbcBatch.inTransaction(dbUtils, con -> JdbcBatch.execute(con,
+                "delete from User where id = ?", ids, dbUtils.getBatchSize(),
+                (preStmt, id) -> preStmt.setInt(1, id)));
+        logger.traceExit("Deleted {} Users", deleted);
+        return deleted;
     }
 }
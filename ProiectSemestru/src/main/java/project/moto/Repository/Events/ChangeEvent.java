@@ -0,0 +1,59 @@
+package project.moto.Repository.Events;
+
+import project.moto.Domain.Entity;
+
+/**
+ * A committed write of one entity
+ * @param <ID> - type of the ids
+ * @param <E> - type of the entities
+ */
+public class ChangeEvent<ID, E extends Entity<ID>> {
+    private final ChangeType type;
+    private final Class<E> entityType;
+    private final ID id;
+    private final E before;
+    private final E after;
+
+    /**
+     * @param before - the entity before the write, null for CREATED
+     * @param after - the entity after the write, null for DELETED
+     */
+    public ChangeEvent(ChangeType type, Class<E> entityType, ID id, E before, E after) {
+        this.type = type;
+        this.entityType = entityType;
+        this.id = id;
+        this.before = before;
+        this.after = after;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Class<E> getEntityType() {
+        return entityType;
+    }
+
+    public ID getId() {
+        return id;
+    }
+
+    public E getBefore() {
+        return before;
+    }
+
+    public E getAfter() {
+        return after;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "type=" + type +
+                ", entityType=" + entityType.getSimpleName() +
+                ", id=" + id +
+                ", before=" + before +
+                ", after=" + after +
+                '}';
+    }
+}
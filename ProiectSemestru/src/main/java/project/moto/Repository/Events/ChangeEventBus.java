@@ -0,0 +1,185 @@
+package project.moto.Repository.Events;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import project.moto.Domain.Entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process bus delivering the change events of the repositories to their subscribers.
+ * Publishing only appends the events to the queue of every subscription of the entity type, the listeners
+ * are called on the threads of the bus. Events published while a subscription is waiting for a thread or
+ * busy with a previous batch are delivered together, in batches of at most {@code maxBatchSize} events.
+ * Each subscription receives its events in publishing order, one batch at a time.
+ * The queues are not bounded, a listener slower than the writes lets its queue grow.
+ */
+public class ChangeEventBus implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger();
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private final Map<Class<?>, List<Subscription<?, ?>>> subscriptions = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final int maxBatchSize;
+    private volatile boolean closed = false;
+
+    /**
+     * @param threads - number of threads the listeners are called on
+     * @param maxBatchSize - maximum number of events handed to a listener at once
+     */
+    public ChangeEventBus(int threads, int maxBatchSize) {
+        if (threads < 1 || maxBatchSize < 1)
+            throw new IllegalArgumentException("Invalid threads " + threads + " or batch size " + maxBatchSize);
+        this.maxBatchSize = maxBatchSize;
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "moto-events-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        logger.info("Created change event bus with {} threads, batch size {}", threads, maxBatchSize);
+    }
+
+    /**
+     * Subscribes a listener to the events of an entity type
+     * @return the subscription, closing it stops the delivery and drops the undelivered events
+     */
+    public <ID, E extends Entity<ID>> Subscription<ID, E> subscribe(Class<E> entityType, ChangeListener<ID, E> listener) {
+        Subscription<ID, E> subscription = new Subscription<>(entityType, listener);
+        subscriptions.computeIfAbsent(entityType, type -> new CopyOnWriteArrayList<>()).add(subscription);
+        logger.info("Subscribed {} to {} changes", listener.getClass().getSimpleName(), entityType.getSimpleName());
+        return subscription;
+    }
+
+    /**
+     * @return whether anyone listens to the events of the entity type, publishers use it to skip building events
+     */
+    public boolean hasSubscribers(Class<?> entityType) {
+        List<Subscription<?, ?>> subscribed = subscriptions.get(entityType);
+        return subscribed != null && !subscribed.isEmpty();
+    }
+
+    public <ID, E extends Entity<ID>> void publish(ChangeEvent<ID, E> event) {
+        publishAll(List.of(event));
+    }
+
+    /**
+     * Queues events of one entity type for every subscription of that type
+     */
+    @SuppressWarnings("unchecked")
+    public <ID, E extends Entity<ID>> void publishAll(List<ChangeEvent<ID, E>> events) {
+        if (events.isEmpty())
+            return;
+        if (closed) {
+            logger.warn("Dropping {} change events, the bus is closed", events.size());
+            return;
+        }
+        List<Subscription<?, ?>> subscribed = subscriptions.get(events.get(0).getEntityType());
+        if (subscribed == null)
+            return;
+        for (Subscription<?, ?> subscription : subscribed)
+            ((Subscription<ID, E>) subscription).offer(events);
+    }
+
+    /**
+     * Stops accepting events and waits for the queued ones to be delivered
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS))
+                logger.warn("Change event listeners did not finish in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Closed change event bus");
+    }
+
+    /**
+     * Queue of the events waiting for one listener
+     * @param <ID> - type of the ids
+     * @param <E> - type of the entities
+     */
+    public final class Subscription<ID, E extends Entity<ID>> implements AutoCloseable {
+        private final Class<E> entityType;
+        private final ChangeListener<ID, E> listener;
+        private final Queue<ChangeEvent<ID, E>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private volatile boolean active = true;
+
+        private Subscription(Class<E> entityType, ChangeListener<ID, E> listener) {
+            this.entityType = entityType;
+            this.listener = listener;
+        }
+
+        private void offer(List<ChangeEvent<ID, E>> events) {
+            if (!active)
+                return;
+            queue.addAll(events);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true))
+                return;
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                logger.warn("Dropping change events for {}, the bus is closed", listener.getClass().getSimpleName());
+            }
+        }
+
+        /**
+         * Delivers batches until the queue is empty, then gives the thread back
+         */
+        private void drain() {
+            while (true) {
+                List<ChangeEvent<ID, E>> batch = new ArrayList<>(Math.min(maxBatchSize, 64));
+                ChangeEvent<ID, E> event;
+                while (batch.size() < maxBatchSize && (event = queue.poll()) != null)
+                    batch.add(event);
+                if (batch.isEmpty()) {
+                    scheduled.set(false);
+                    if (queue.isEmpty() || !scheduled.compareAndSet(false, true))
+                        return;
+                    continue;
+                }
+                if (!active)
+                    continue;
+                try {
+                    listener.onChanges(batch);
+                } catch (RuntimeException e) {
+                    logger.error("Change listener {} failed on {} events: {}",
+                            listener.getClass().getSimpleName(), batch.size(), e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Stops the delivery to the listener
+         */
+        @Override
+        public void close() {
+            active = false;
+            queue.clear();
+            List<Subscription<?, ?>> subscribed = subscriptions.get(entityType);
+            if (subscribed != null)
+                subscribed.remove(this);
+        }
+    }
+}
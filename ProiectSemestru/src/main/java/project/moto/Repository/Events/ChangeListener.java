@@ -0,0 +1,19 @@
+package project.moto.Repository.Events;
+
+import project.moto.Domain.Entity;
+
+import java.util.List;
+
+/**
+ * Receives the change events of one entity type
+ * @param <ID> - type of the ids
+ * @param <E> - type of the entities
+ */
+@FunctionalInterface
+public interface ChangeListener<ID, E extends Entity<ID>> {
+    /**
+     * Called on a thread of the bus, never concurrently for the same subscription
+     * @param events - one or more events, in the order they were published
+     */
+    void onChanges(List<ChangeEvent<ID, E>> events);
+}
@@ -0,0 +1,10 @@
+package project.moto.Repository.Events;
+
+/**
+ * Kind of write a change event announces
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,30 @@
+package project.moto.Repository.Events;
+
+import project.moto.Domain.Player;
+import project.moto.Repository.PlayerRepository;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Change publishing decorator for a PlayerRepository
+ */
+public class PublishingPlayerRepository extends PublishingRepository<Integer, Player> implements PlayerRepository {
+
+    private final PlayerRepository players;
+
+    public PublishingPlayerRepository(PlayerRepository delegate, Properties props, ChangeEventBus bus) {
+        super(delegate, props, bus, Player.class);
+        this.players = delegate;
+    }
+
+    @Override
+    public List<Player> findByTeam(Integer teamId) {
+        return players.findByTeam(teamId);
+    }
+
+    @Override
+    public int countByTeam(Integer teamId) {
+        return players.countByTeam(teamId);
+    }
+}
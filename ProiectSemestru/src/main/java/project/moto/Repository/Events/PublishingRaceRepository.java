@@ -0,0 +1,54 @@
+package project.moto.Repository.Events;
+
+import project.moto.Domain.Race;
+import project.moto.Repository.RaceRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Change publishing decorator for a RaceRepository, roster updates are published as updates of the race
+ */
+public class PublishingRaceRepository extends PublishingRepository<Integer, Race> implements RaceRepository {
+
+    private final RaceRepository races;
+
+    public PublishingRaceRepository(RaceRepository delegate, Properties props, ChangeEventBus bus) {
+        super(delegate, props, bus, Race.class);
+        this.races = delegate;
+    }
+
+    @Override
+    public int updateRoster(Race race) {
+        if (!hasSubscribers())
+            return races.updateRoster(race);
+        return inTransaction(() -> {
+            Optional<Race> before = races.findOne(race.getId());
+            int touched = races.updateRoster(race);
+            if (touched > 0)
+                before.ifPresent(old -> publishUpdated(old, race));
+            return touched;
+        });
+    }
+
+    @Override
+    public List<Race> findByEngineType(Integer engineType) {
+        return races.findByEngineType(engineType);
+    }
+
+    @Override
+    public int countByEngineType(Integer engineType) {
+        return races.countByEngineType(engineType);
+    }
+
+    @Override
+    public List<Race> findByPlayer(Integer playerId) {
+        return races.findByPlayer(playerId);
+    }
+
+    @Override
+    public int countByPlayer(Integer playerId) {
+        return races.countByPlayer(playerId);
+    }
+}
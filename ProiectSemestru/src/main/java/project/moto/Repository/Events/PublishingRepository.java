@@ -0,0 +1,180 @@
+package project.moto.Repository.Events;
+
+import project.moto.Domain.Entity;
+import project.moto.Repository.Page;
+import project.moto.Repository.Repository;
+import project.moto.Repository.SortOrder;
+import project.moto.Utils.JdbcBatch;
+import project.moto.Utils.JdbcUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Decorator publishing a change event for every successful write of the wrapped database repository.
+ * While the entity type has subscribers, the entity before an update or a delete is read in the same transaction
+ * as the write, so a concurrent writer cannot change it in between. The events are published once the
+ * transaction commits and dropped if it rolls back. Without subscribers the writes go straight to the wrapped repository.
+ * @param <ID> - type of the ids
+ * @param <E> - type of the entities
+ */
+public class PublishingRepository<ID, E extends Entity<ID>> implements Repository<ID, E> {
+
+    protected final Repository<ID, E> delegate;
+    private final JdbcUtils dbUtils;
+    private final ChangeEventBus bus;
+    private final Class<E> entityType;
+
+    /**
+     * @param delegate - the repository the writes go to
+     * @param props - database properties of the repository, the transactions are opened on the same connection pool
+     * @param bus - the bus the events are published on
+     * @param entityType - the type the events are published under, e.g. Player.class
+     */
+    public PublishingRepository(Repository<ID, E> delegate, Properties props, ChangeEventBus bus, Class<E> entityType) {
+        this.delegate = delegate;
+        this.dbUtils = new JdbcUtils(props);
+        this.bus = bus;
+        this.entityType = entityType;
+    }
+
+    @Override
+    public Optional<E> findOne(ID id) {
+        return delegate.findOne(id);
+    }
+
+    @Override
+    public Map<ID, E> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<E> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<E> streamAll(int fetchSize) {
+        return delegate.streamAll(fetchSize);
+    }
+
+    @Override
+    public Page<ID, E> findPage(ID afterId, int limit, SortOrder sort) {
+        return delegate.findPage(afterId, limit, sort);
+    }
+
+    @Override
+    public Optional<E> save(E entity) {
+        Optional<E> saved = delegate.save(entity);
+        saved.ifPresent(e -> publish(List.of(event(ChangeType.CREATED, e.getId(), null, e))));
+        return saved;
+    }
+
+    @Override
+    public Optional<E> delete(ID id) {
+        if (!hasSubscribers())
+            return delegate.delete(id);
+        return inTransaction(() -> {
+            Optional<E> deleted = delegate.delete(id);
+            deleted.ifPresent(e -> publish(List.of(event(ChangeType.DELETED, id, e, null))));
+            return deleted;
+        });
+    }
+
+    @Override
+    public Optional<E> update(E entity) {
+        if (!hasSubscribers())
+            return delegate.update(entity);
+        return inTransaction(() -> {
+            Optional<E> before = delegate.findOne(entity.getId());
+            Optional<E> updated = delegate.update(entity);
+            if (updated.isPresent())
+                before.ifPresent(old -> publishUpdated(old, entity));
+            return updated;
+        });
+    }
+
+    @Override
+    public List<E> saveAll(Collection<E> entities) {
+        List<E> saved = delegate.saveAll(entities);
+        if (hasSubscribers()) {
+            List<ChangeEvent<ID, E>> events = new ArrayList<>(saved.size());
+            for (E entity : saved)
+                events.add(event(ChangeType.CREATED, entity.getId(), null, entity));
+            publish(events);
+        }
+        return saved;
+    }
+
+    @Override
+    public int updateAll(Collection<E> entities) {
+        if (!hasSubscribers())
+            return delegate.updateAll(entities);
+        return inTransaction(() -> {
+            Map<ID, E> before = new LinkedHashMap<>();
+            for (E entity : entities)
+                delegate.findOne(entity.getId()).ifPresent(e -> before.put(e.getId(), e));
+            int updated = delegate.updateAll(entities);
+            List<ChangeEvent<ID, E>> events = new ArrayList<>(before.size());
+            for (E entity : entities) {
+                E old = before.get(entity.getId());
+                if (old != null)
+                    events.add(event(ChangeType.UPDATED, entity.getId(), old, entity));
+            }
+            publish(events);
+            return updated;
+        });
+    }
+
+    @Override
+    public int deleteAll(Collection<ID> ids) {
+        if (!hasSubscribers())
+            return delegate.deleteAll(ids);
+        return inTransaction(() -> {
+            List<ChangeEvent<ID, E>> events = new ArrayList<>(ids.size());
+            for (ID id : ids)
+                delegate.findOne(id).ifPresent(e -> events.add(event(ChangeType.DELETED, id, e, null)));
+            int deleted = delegate.deleteAll(ids);
+            publish(events);
+            return deleted;
+        });
+    }
+
+    /**
+     * @return whether the writes of this repository are listened to, so the entities before them must be read
+     */
+    protected boolean hasSubscribers() {
+        return bus.hasSubscribers(entityType);
+    }
+
+    /**
+     * Runs the read of the entities before a write and the write itself in one transaction
+     * @return the result of the write
+     */
+    protected <R> R inTransaction(Supplier<R> write) {
+        return JdbcBatch.inTransaction(dbUtils, con -> write.get());
+    }
+
+    /**
+     * Publishes the update of an entity, for writes which are not part of the Repository interface
+     */
+    protected void publishUpdated(E before, E after) {
+        publish(List.of(event(ChangeType.UPDATED, after.getId(), before, after)));
+    }
+
+    private ChangeEvent<ID, E> event(ChangeType type, ID id, E before, E after) {
+        return new ChangeEvent<>(type, entityType, id, before, after);
+    }
+
+    private void publish(List<ChangeEvent<ID, E>> events) {
+        if (!events.isEmpty() && hasSubscribers())
+            JdbcBatch.afterCommit(() -> bus.publishAll(events));
+    }
+}
@@ -0,0 +1,16 @@
+package project.moto.Repository.Events;
+
+import project.moto.Domain.Team;
+import project.moto.Repository.TeamRepository;
+
+import java.util.Properties;
+
+/**
+ * Change publishing decorator for a TeamRepository
+ */
+public class PublishingTeamRepository extends PublishingRepository<Integer, Team> implements TeamRepository {
+
+    public PublishingTeamRepository(TeamRepository delegate, Properties props, ChangeEventBus bus) {
+        super(delegate, props, bus, Team.class);
+    }
+}
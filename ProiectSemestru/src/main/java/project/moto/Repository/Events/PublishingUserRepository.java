@@ -0,0 +1,25 @@
+package project.moto.Repository.Events;
+
+import project.moto.Domain.User;
+import project.moto.Repository.UserRepository;
+
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Change publishing decorator for a UserRepository
+ */
+public class PublishingUserRepository extends PublishingRepository<Integer, User> implements UserRepository {
+
+    private final UserRepository users;
+
+    public PublishingUserRepository(UserRepository delegate, Properties props, ChangeEventBus bus) {
+        super(delegate, props, bus, User.class);
+        this.users = delegate;
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return users.findByUsername(username);
+    }
+}
@@ -0,0 +1,29 @@
+package project.moto.Repository.Metrics;
+
+import project.moto.Domain.Player;
+import project.moto.Repository.PlayerRepository;
+
+import java.util.List;
+
+/**
+ * Instrumenting decorator for a PlayerRepository
+ */
+public class MeteredPlayerRepository extends MeteredRepository<Integer, Player> implements PlayerRepository {
+
+    private final PlayerRepository players;
+
+    public MeteredPlayerRepository(PlayerRepository delegate, String name) {
+        super(delegate, name);
+        this.players = delegate;
+    }
+
+    @Override
+    public List<Player> findByTeam(Integer teamId) {
+        return measure("findByTeam", () -> players.findByTeam(teamId), List::size);
+    }
+
+    @Override
+    public int countByTeam(Integer teamId) {
+        return measure("countByTeam", () -> players.countByTeam(teamId), count -> 1);
+    }
+}
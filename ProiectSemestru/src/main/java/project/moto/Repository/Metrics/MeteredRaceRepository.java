@@ -0,0 +1,44 @@
+package project.moto.Repository.Metrics;
+
+import project.moto.Domain.Race;
+import project.moto.Repository.RaceRepository;
+
+import java.util.List;
+
+/**
+ * Instrumenting decorator for a RaceRepository
+ */
+public class MeteredRaceRepository extends MeteredRepository<Integer, Race> implements RaceRepository {
+
+    private final RaceRepository races;
+
+    public MeteredRaceRepository(RaceRepository delegate, String name) {
+        super(delegate, name);
+        this.races = delegate;
+    }
+
+    @Override
+    public int updateRoster(Race race) {
+        return measure("updateRoster", () -> races.updateRoster(race), Integer::longValue);
+    }
+
+    @Override
+    public List<Race> findByEngineType(Integer engineType) {
+        return measure("findByEngineType", () -> races.findByEngineType(engineType), List::size);
+    }
+
+    @Override
+    public int countByEngineType(Integer engineType) {
+        return measure("countByEngineType", () -> races.countByEngineType(engineType), count -> 1);
+    }
+
+    @Override
+    public List<Race> findByPlayer(Integer playerId) {
+        return measure("findByPlayer", () -> races.findByPlayer(playerId), List::size);
+    }
+
+    @Override
+    public int countByPlayer(Integer playerId) {
+        return measure("countByPlayer", () -> races.countByPlayer(playerId), count -> 1);
+    }
+}
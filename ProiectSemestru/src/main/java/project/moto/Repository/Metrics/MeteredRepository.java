@@ -0,0 +1,185 @@
+package project.moto.Repository.Metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import project.moto.Domain.Entity;
+import project.moto.Repository.Page;
+import project.moto.Repository.Repository;
+import project.moto.Repository.SortOrder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Instrumenting decorator for any repository.
+ * Every call is timed and counted per operation, together with the number of rows it returned or wrote
+ * and whether it failed. The metrics of each operation are registered as a JMX MBean named
+ * {@code project.moto:type=Repository,name=<name>,operation=<operation>}.
+ * @param <ID> - type of the ids
+ * @param <E> - type of the entities
+ */
+public class MeteredRepository<ID, E extends Entity<ID>> implements Repository<ID, E>, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    protected final Repository<ID, E> delegate;
+    private final String name;
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final Map<String, ObjectName> registered = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate - the measured repository
+     * @param name - name under which the metrics are published, e.g. "players"
+     */
+    public MeteredRepository(Repository<ID, E> delegate, String name) {
+        this.delegate = delegate;
+        this.name = name;
+        logger.info("Metering {} as {}", delegate.getClass().getSimpleName(), name);
+    }
+
+    /**
+     * @return the metrics of the operation, created and registered with JMX on first use
+     */
+    public OperationMetrics metrics(String operation) {
+        OperationMetrics metrics = operations.get(operation);
+        return metrics != null ? metrics : operations.computeIfAbsent(operation, this::register);
+    }
+
+    /**
+     * @return snapshot of the metrics of every operation called so far
+     */
+    public Map<String, OperationMetrics> getOperations() {
+        return Collections.unmodifiableMap(operations);
+    }
+
+    /**
+     * Times a call and records it under the given operation
+     * @param rows - counts the rows of the result
+     * @return the result of the call
+     */
+    public <T> T measure(String operation, Supplier<T> call, ToLongFunction<? super T> rows) {
+        OperationMetrics metrics = metrics(operation);
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            metrics.record(System.nanoTime() - start, 0, true);
+            throw e;
+        }
+        metrics.record(System.nanoTime() - start, rows.applyAsLong(result), false);
+        return result;
+    }
+
+    @Override
+    public Optional<E> findOne(ID id) {
+        return measure("findOne", () -> delegate.findOne(id), MeteredRepository::present);
+    }
+
+    @Override
+    public Map<ID, E> findAll() {
+        return measure("findAll", delegate::findAll, Map::size);
+    }
+
+    @Override
+    public Stream<E> streamAll() {
+        return metered("streamAll", delegate::streamAll);
+    }
+
+    @Override
+    public Stream<E> streamAll(int fetchSize) {
+        return metered("streamAll", () -> delegate.streamAll(fetchSize));
+    }
+
+    @Override
+    public Page<ID, E> findPage(ID afterId, int limit, SortOrder sort) {
+        return measure("findPage", () -> delegate.findPage(afterId, limit, sort), page -> page.getItems().size());
+    }
+
+    @Override
+    public Optional<E> save(E entity) {
+        return measure("save", () -> delegate.save(entity), MeteredRepository::present);
+    }
+
+    @Override
+    public Optional<E> delete(ID id) {
+        return measure("delete", () -> delegate.delete(id), MeteredRepository::present);
+    }
+
+    @Override
+    public Optional<E> update(E entity) {
+        return measure("update", () -> delegate.update(entity), MeteredRepository::present);
+    }
+
+    @Override
+    public List<E> saveAll(Collection<E> entities) {
+        return measure("saveAll", () -> delegate.saveAll(entities), List::size);
+    }
+
+    @Override
+    public int updateAll(Collection<E> entities) {
+        return measure("updateAll", () -> delegate.updateAll(entities), Integer::longValue);
+    }
+
+    @Override
+    public int deleteAll(Collection<ID> ids) {
+        return measure("deleteAll", () -> delegate.deleteAll(ids), Integer::longValue);
+    }
+
+    /**
+     * Unregisters the MBeans of this repository
+     */
+    @Override
+    public void close() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        registered.values().forEach(objectName -> {
+            try {
+                if (server.isRegistered(objectName))
+                    server.unregisterMBean(objectName);
+            } catch (JMException e) {
+                logger.error(e.getMessage());
+            }
+        });
+        registered.clear();
+    }
+
+    /**
+     * The latency of a stream covers opening the cursor only, rows are counted as the stream is consumed
+     */
+    private Stream<E> metered(String operation, Supplier<Stream<E>> call) {
+        Stream<E> stream = measure(operation, call, s -> 0);
+        OperationMetrics metrics = metrics(operation);
+        return stream.peek(e -> metrics.addRows(1));
+    }
+
+    private OperationMetrics register(String operation) {
+        OperationMetrics metrics = new OperationMetrics(operation);
+        try {
+            ObjectName objectName = new ObjectName("project.moto:type=Repository,name=" + ObjectName.quote(name)
+                    + ",operation=" + operation);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName))
+                server.unregisterMBean(objectName);
+            server.registerMBean(metrics, objectName);
+            registered.put(operation, objectName);
+        } catch (JMException e) {
+            logger.error("Could not register metrics for {}.{}: {}", name, operation, e.getMessage());
+        }
+        return metrics;
+    }
+
+    private static long present(Optional<?> result) {
+        return result.isPresent() ? 1 : 0;
+    }
+}
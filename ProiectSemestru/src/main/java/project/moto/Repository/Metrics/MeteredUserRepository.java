@@ -0,0 +1,24 @@
+package project.moto.Repository.Metrics;
+
+import project.moto.Domain.User;
+import project.moto.Repository.UserRepository;
+
+import java.util.Optional;
+
+/**
+ * Instrumenting decorator for a UserRepository
+ */
+public class MeteredUserRepository extends MeteredRepository<Integer, User> implements UserRepository {
+
+    private final UserRepository users;
+
+    public MeteredUserRepository(UserRepository delegate, String name) {
+        super(delegate, name);
+        this.users = delegate;
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return measure("findByUsername", () -> users.findByUsername(username), result -> result.isPresent() ? 1 : 0);
+    }
+}
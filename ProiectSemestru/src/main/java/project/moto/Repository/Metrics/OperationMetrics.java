@@ -0,0 +1,106 @@
+package project.moto.Repository.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call, error and row counters plus a latency histogram for one repository operation
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+
+    private final String operation;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public OperationMetrics(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * @param nanos - duration of the call
+     * @param rowCount - number of rows returned or written by the call
+     * @param failed - whether the call threw
+     */
+    public void record(long nanos, long rowCount, boolean failed) {
+        calls.increment();
+        if (failed)
+            errors.increment();
+        if (rowCount > 0)
+            rows.add(rowCount);
+        latency.record(nanos);
+    }
+
+    public void addRows(long rowCount) {
+        rows.add(rowCount);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMean() / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.getValueAtQuantile(0.5) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.getValueAtQuantile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.getValueAtQuantile(0.999) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.getMax() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        latency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return operation + "{" +
+                "calls=" + getCalls() +
+                ", errors=" + getErrors() +
+                ", rows=" + getRows() +
+                ", p50=" + getP50Micros() + "us" +
+                ", p99=" + getP99Micros() + "us" +
+                ", p999=" + getP999Micros() + "us" +
+                ", max=" + getMaxMicros() + "us" +
+                '}';
+    }
+}
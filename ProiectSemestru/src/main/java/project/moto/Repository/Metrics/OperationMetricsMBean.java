@@ -0,0 +1,24 @@
+package project.moto.Repository.Metrics;
+
+/**
+ * JMX view of the metrics of one repository operation, latencies are in microseconds
+ */
+public interface OperationMetricsMBean {
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
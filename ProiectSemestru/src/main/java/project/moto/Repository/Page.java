@@ -0,0 +1,58 @@
+package project.moto.Repository;
+
+import project.moto.Domain.Entity;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query.
+ * The next page is requested with the id of the last entity of this page, see {@link #getNextAfterId()}.
+ * @param <ID> - type of the ids
+ * @param <E> - type of the entities
+ */
+public class Page<ID, E extends Entity<ID>> {
+    private final List<E> items;
+    private final boolean hasMore;
+
+    public Page(List<E> items, boolean hasMore) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Builds a page from a query that asked for one row more than the page size,
+     * the extra row only tells whether another page follows
+     * @param rows - at most limit + 1 entities
+     * @param limit - the page size
+     */
+    public static <ID, E extends Entity<ID>> Page<ID, E> of(List<E> rows, int limit) {
+        if (rows.size() > limit)
+            return new Page<>(rows.subList(0, limit), true);
+        return new Page<>(rows, false);
+    }
+
+    public List<E> getItems() {
+        return items;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * @return the id to pass as afterId for the next page, null if this is the last page
+     */
+    public ID getNextAfterId() {
+        return hasMore && !items.isEmpty() ? items.get(items.size() - 1).getId() : null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items.size() +
+                ", hasMore=" + hasMore +
+                ", nextAfterId=" + getNextAfterId() +
+                '}';
+    }
+}
@@ -2,6 +2,18 @@ package project.moto.Repository;
 
 import project.moto.Domain.Player;
 
+import java.util.List;
+
 public interface PlayerRepository extends Repository<Integer, Player> {
-    
+    /**
+     * @param teamId - id of the team
+     * @return the players of the team, ordered by id
+     */
+    List<Player> findByTeam(Integer teamId);
+
+    /**
+     * @param teamId - id of the team
+     * @return the number of players of the team
+     */
+    int countByTeam(Integer teamId);
 }
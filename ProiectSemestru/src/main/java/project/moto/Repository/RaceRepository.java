@@ -2,5 +2,37 @@ package project.moto.Repository;
 
 import project.moto.Domain.Race;
 
+import java.util.List;
+
 public interface RaceRepository extends Repository<Integer, Race>{
+    /**
+     * Updates the race and writes only the roster entries that changed
+     * @param race - entity must be not null
+     * @return the number of rows written, 0 if the race does not exist
+     */
+    int updateRoster(Race race);
+
+    /**
+     * @param engineType - engine capacity, e.g. 125
+     * @return the races of the engine type with their players, ordered by id
+     */
+    List<Race> findByEngineType(Integer engineType);
+
+    /**
+     * @param engineType - engine capacity, e.g. 125
+     * @return the number of races of the engine type
+     */
+    int countByEngineType(Integer engineType);
+
+    /**
+     * @param playerId - id of the player
+     * @return the races the player takes part in, with their full rosters, ordered by id
+     */
+    List<Race> findByPlayer(Integer playerId);
+
+    /**
+     * @param playerId - id of the player
+     * @return the number of races the player takes part in
+     */
+    int countByPlayer(Integer playerId);
 }
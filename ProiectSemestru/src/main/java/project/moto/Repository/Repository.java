@@ -5,8 +5,11 @@ package project.moto.Repository;
 
 import project.moto.Domain.Entity;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * CRUD operations Repository interface
@@ -28,6 +31,28 @@ public interface Repository<ID, E extends Entity<ID>> {
      * @return all entities
      */
     Map<ID,E> findAll();
+    /**
+     * Streams all entities from an open cursor, without loading them all in memory
+     * The stream holds a database connection until it is closed, use it in a try-with-resources block
+     * @return a lazily populated {@code Stream} of all entities, fetched in chunks of the configured fetch size
+     */
+    Stream<E> streamAll();
+    /**
+     * @param fetchSize - number of rows fetched from the database at once
+     * @return a lazily populated {@code Stream} of all entities
+     */
+    Stream<E> streamAll(int fetchSize);
+    /**
+     * Reads one page of entities ordered by id, seeking directly to the first id after the previous page
+     * so the cost of a page does not depend on how deep it is
+     * @param afterId - id of the last entity of the previous page, null for the first page
+     * @param limit - maximum number of entities in the page, must be positive
+     * @param sort - direction of the ids
+     * @return the page
+     * @throws IllegalArgumentException
+     * if limit is not positive.
+     */
+    Page<ID, E> findPage(ID afterId, int limit, SortOrder sort);
     /**
      *
      * @param entity
@@ -63,4 +88,23 @@ public interface Repository<ID, E extends Entity<ID>> {
 
     Optional<E> update(E entity);
 
+    /**
+     * Saves all the entities in one transaction, sending the inserts in batches
+     * @param entities - entities must be not null
+     * @return the saved entities, in the given order, with their generated ids set
+     */
+    List<E> saveAll(Collection<E> entities);
+    /**
+     * Updates all the entities in one transaction, sending the updates in batches
+     * @param entities - entities must be not null
+     * @return the number of entities that were updated
+     */
+    int updateAll(Collection<E> entities);
+    /**
+     * Deletes the entities with the given ids in one transaction, sending the deletes in batches
+     * @param ids - ids must be not null
+     * @return the number of entities that were deleted
+     */
+    int deleteAll(Collection<ID> ids);
+
 }
@@ -0,0 +1,9 @@
+package project.moto.Repository;
+
+/**
+ * Direction in which pages are read, by id
+ */
+public enum SortOrder {
+    ASC,
+    DESC
+}
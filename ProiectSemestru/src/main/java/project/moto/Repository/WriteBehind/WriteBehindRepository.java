@@ -0,0 +1,279 @@
+package project.moto.Repository.WriteBehind;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import project.moto.Domain.Entity;
+import project.moto.Repository.Repository;
+import project.moto.Utils.JdbcBatch;
+import project.moto.Utils.JdbcUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind buffer in front of a database repository.
+ * Saves, updates and deletes are queued and return at once with a future. A background thread writes
+ * the queued mutations with saveAll, updateAll and deleteAll inside one transaction, when the batch size
+ * is reached or when the oldest queued mutation waited for the whole window, and completes the futures
+ * once the transaction is committed. Repeated updates of the same id are coalesced into the last one,
+ * a delete drops the queued updates of its id.
+ * The queue is bounded: when it holds {@code capacity} mutations the writers block until the next batch is taken.
+ * Reads through {@link #getRepository()} do not see mutations that are still queued, call {@link #flush()} first.
+ * The futures are completed on the writer thread, dependent actions should not block.
+ * @param <ID> - type of the ids
+ * @param <E> - type of the entities
+ * @param <R> - type of the wrapped repository
+ */
+public class WriteBehindRepository<ID, E extends Entity<ID>, R extends Repository<ID, E>> implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger();
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private final R repository;
+    private final JdbcUtils dbUtils;
+    private final int batchSize;
+    private final long windowNanos;
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Thread writer;
+    private Batch<ID, E> pending = new Batch<>();
+    private boolean flushRequested = false;
+    private boolean closed = false;
+
+    /**
+     * @param repository - the database repository the mutations are written to
+     * @param props - database properties of the repository, the transaction is opened on the same connection pool
+     * @param batchSize - number of queued mutations that triggers a write before the window ends
+     * @param windowMillis - longest time a mutation waits in the queue
+     * @param capacity - maximum number of queued mutations, at least batchSize
+     */
+    public WriteBehindRepository(R repository, Properties props, int batchSize, long windowMillis, int capacity) {
+        if (batchSize < 1 || windowMillis < 0 || capacity < batchSize)
+            throw new IllegalArgumentException("Invalid batch size " + batchSize + ", window " + windowMillis + "ms or capacity " + capacity);
+        this.repository = repository;
+        this.dbUtils = new JdbcUtils(props);
+        this.batchSize = batchSize;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.capacity = capacity;
+        this.writer = new Thread(this::run, "moto-write-behind-" + threadCounter.incrementAndGet());
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Write-behind for {} with batch size {}, window {}ms, capacity {}",
+                repository.getClass().getSimpleName(), batchSize, windowMillis, capacity);
+    }
+
+    /**
+     * @return the wrapped repository, for reads
+     */
+    public R getRepository() {
+        return repository;
+    }
+
+    /**
+     * Queues the insert of a new entity
+     * @return a future completed with the entity, its id set, once the insert is committed
+     */
+    public CompletableFuture<E> save(E entity) {
+        if (entity == null)
+            throw new IllegalArgumentException("entity must not be null");
+        CompletableFuture<E> future = new CompletableFuture<>();
+        enqueue(batch -> batch.inserts.add(entity), future, () -> future.complete(entity));
+        return future;
+    }
+
+    /**
+     * Queues the update of an entity, replacing an update of the same id which is still queued.
+     * The update is dropped when a delete of the id is already queued, its future then fails with an
+     * IllegalStateException once the delete is committed.
+     * @return a future completed with the entity once the update is committed
+     */
+    public CompletableFuture<E> update(E entity) {
+        if (entity == null || entity.getId() == null)
+            throw new IllegalArgumentException("entity and its id must not be null");
+        CompletableFuture<E> future = new CompletableFuture<>();
+        boolean[] dropped = new boolean[1];
+        enqueue(batch -> {
+            dropped[0] = batch.deletes.contains(entity.getId());
+            if (!dropped[0])
+                batch.updates.put(entity.getId(), entity);
+        }, future, () -> {
+            if (dropped[0])
+                future.completeExceptionally(new IllegalStateException("Update of " + entity.getId() + " dropped, the id is deleted"));
+            else
+                future.complete(entity);
+        });
+        return future;
+    }
+
+    /**
+     * Queues the delete of an id, dropping the queued updates of the same id
+     * @return a future completed with the id once the delete is committed
+     */
+    public CompletableFuture<ID> delete(ID id) {
+        if (id == null)
+            throw new IllegalArgumentException("id must not be null");
+        CompletableFuture<ID> future = new CompletableFuture<>();
+        enqueue(batch -> {
+            batch.updates.remove(id);
+            batch.deletes.add(id);
+        }, future, () -> future.complete(id));
+        return future;
+    }
+
+    /**
+     * Asks for the queued mutations to be written without waiting for the window to end
+     * @return a future completed once every mutation queued before the call is committed
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        enqueue(batch -> flushRequested = true, future, () -> future.complete(null));
+        return future;
+    }
+
+    /**
+     * @return the number of queued mutations
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting mutations, writes the queued ones and waits for the writer thread to finish
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Closed write-behind for {}", repository.getClass().getSimpleName());
+    }
+
+    /**
+     * Adds a mutation to the pending batch, waiting while the queue is full
+     * @param mutation - changes the pending batch
+     */
+    private void enqueue(Consumer<Batch<ID, E>> mutation, CompletableFuture<?> future, Runnable onCommit) {
+        lock.lock();
+        try {
+            while (!closed && pending.size() >= capacity)
+                notFull.awaitUninterruptibly();
+            if (closed)
+                throw new IllegalStateException("Write-behind buffer is closed");
+            if (pending.isEmpty())
+                pending.firstQueued = System.nanoTime();
+            mutation.accept(pending);
+            pending.futures.add(future);
+            pending.commits.add(onCommit);
+            if (pending.futures.size() == 1 || flushRequested || pending.size() >= batchSize)
+                notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Batch<ID, E> batch;
+            lock.lock();
+            try {
+                while (!closed && pending.isEmpty())
+                    notEmpty.awaitUninterruptibly();
+                if (pending.isEmpty())
+                    return;
+                long remaining;
+                while (!closed && !flushRequested && pending.size() < batchSize
+                        && (remaining = pending.firstQueued + windowNanos - System.nanoTime()) > 0)
+                    notEmpty.awaitNanos(remaining);
+                batch = pending;
+                pending = new Batch<>();
+                flushRequested = false;
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                logger.warn("Write-behind writer interrupted, writing the queued mutations");
+                batch = pending;
+                pending = new Batch<>();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            write(batch);
+        }
+    }
+
+    private void write(Batch<ID, E> batch) {
+        int size = batch.size();
+        try {
+            if (size > 0) {
+                long start = System.nanoTime();
+                JdbcBatch.inTransaction(dbUtils, con -> {
+                    if (!batch.inserts.isEmpty())
+                        repository.saveAll(batch.inserts);
+                    if (!batch.updates.isEmpty())
+                        repository.updateAll(batch.updates.values());
+                    if (!batch.deletes.isEmpty())
+                        repository.deleteAll(batch.deletes);
+                    return null;
+                });
+                logger.debug("Committed {} inserts, {} updates, {} deletes for {} requests in {} us",
+                        batch.inserts.size(), batch.updates.size(), batch.deletes.size(), batch.futures.size(),
+                        (System.nanoTime() - start) / 1000);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Write-behind batch of {} mutations failed: {}", size, e.getMessage());
+            batch.futures.forEach(future -> future.completeExceptionally(e));
+            return;
+        }
+        batch.commits.forEach(Runnable::run);
+    }
+
+    /**
+     * Mutations written in one transaction, with the futures waiting for it
+     */
+    private static final class Batch<ID, E> {
+        private final List<E> inserts = new ArrayList<>();
+        private final Map<ID, E> updates = new LinkedHashMap<>();
+        private final Set<ID> deletes = new LinkedHashSet<>();
+        private final List<CompletableFuture<?>> futures = new ArrayList<>();
+        private final List<Runnable> commits = new ArrayList<>();
+        private long firstQueued;
+
+        private int size() {
+            return inserts.size() + updates.size() + deletes.size();
+        }
+
+        private boolean isEmpty() {
+            return futures.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package project.moto.Utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded JDBC connection pool.
+ * Connections handed out by {@link #borrow()} are proxies, closing them returns the
+ * physical connection to the pool. A background housekeeper evicts idle connections,
+ * keeps at least {@code minSize} connections open and reports connections that were
+ * borrowed for longer than the leak detection threshold.
+ * Each physical connection keeps its own {@link StatementCache}, so the same SQL is prepared
+ * once per connection instead of once per call.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection to the database
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private static final Logger logger = LogManager.getLogger();
+    private static final AtomicInteger poolCounter = new AtomicInteger();
+
+    private final String name;
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long checkoutTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final long idleTimeoutMillis;
+    private final long leakDetectionMillis;
+    private final int statementCacheSize;
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long checkoutTimeoutMillis,
+                          int validationTimeoutSeconds, long idleTimeoutMillis, long leakDetectionMillis,
+                          int statementCacheSize) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize)
+            throw new IllegalArgumentException("Invalid pool size min=" + minSize + " max=" + maxSize);
+        this.name = "moto-pool-" + poolCounter.incrementAndGet();
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.checkoutTimeoutMillis = checkoutTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakDetectionMillis = leakDetectionMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        long period = Math.max(1000, Math.min(
+                idleTimeoutMillis > 0 ? idleTimeoutMillis : 30000,
+                leakDetectionMillis > 0 ? leakDetectionMillis : 30000) / 2);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, 0, period, TimeUnit.MILLISECONDS);
+        logger.info("Created {} min={} max={} checkoutTimeout={}ms idleTimeout={}ms leakDetection={}ms statementCache={}",
+                name, minSize, maxSize, checkoutTimeoutMillis, idleTimeoutMillis, leakDetectionMillis, statementCacheSize);
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting at most the checkout timeout for one to become free
+     * @return a pooled connection, it must be closed by the caller to give it back to the pool
+     * @throws SQLException if the pool is closed, no connection became free in time or a new connection could not be opened
+     */
+    public Connection borrow() throws SQLException {
+        if (closed)
+            throw new SQLException("Connection pool " + name + " is closed");
+        try {
+            if (!permits.tryAcquire(checkoutTimeoutMillis, TimeUnit.MILLISECONDS))
+                throw new SQLException("Timed out after " + checkoutTimeoutMillis + "ms waiting for a connection from " + name
+                        + " (active=" + borrowed.size() + ", max=" + maxSize + ")");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isValid(pooled))
+                    break;
+                logger.warn("Discarding invalid connection from {}", name);
+                destroy(pooled);
+            }
+            if (pooled == null)
+                pooled = open();
+            pooled.checkout();
+            borrowed.add(pooled);
+            return pooled.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return total.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return how many prepareStatement calls were served from a statement cache
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * @return how many prepareStatement calls had to prepare a new statement
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeper, borrowed connections are closed when given back
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null)
+            destroy(pooled);
+        logger.info("Closed {}", name);
+    }
+
+    private void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled))
+            return;
+        try {
+            Connection con = pooled.physical;
+            if (!con.getAutoCommit()) {
+                con.rollback();
+                con.setAutoCommit(true);
+            }
+            if (closed || con.isClosed()) {
+                destroy(pooled);
+            } else {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            logger.error("Could not reset connection, discarding it: {}", e.getMessage());
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection con = factory.create();
+        if (con == null)
+            throw new SQLException("Could not open a new connection for " + name);
+        total.incrementAndGet();
+        return new PooledConnection(con);
+    }
+
+    private void destroy(PooledConnection pooled) {
+        total.decrementAndGet();
+        if (pooled.statements != null)
+            pooled.statements.close();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    private void houseKeep() {
+        try {
+            long now = System.currentTimeMillis();
+            if (idleTimeoutMillis > 0) {
+                for (PooledConnection pooled : idle) {
+                    if (total.get() <= minSize)
+                        break;
+                    if (now - pooled.lastUsed > idleTimeoutMillis && idle.remove(pooled)) {
+                        logger.debug("Evicting idle connection from {}", name);
+                        destroy(pooled);
+                    }
+                }
+            }
+            while (!closed && total.get() < minSize && permits.tryAcquire()) {
+                try {
+                    PooledConnection pooled = open();
+                    pooled.lastUsed = now;
+                    idle.offerLast(pooled);
+                } finally {
+                    permits.release();
+                }
+            }
+            if (leakDetectionMillis > 0) {
+                for (PooledConnection pooled : borrowed) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt > leakDetectionMillis) {
+                        pooled.leakReported = true;
+                        logger.warn("Possible connection leak in " + name + ": connection borrowed "
+                                + (now - pooled.borrowedAt) + "ms ago by " + pooled.borrowerThread, pooled.borrowTrace);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Connection pool housekeeping failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Physical connection owned by the pool together with its bookkeeping
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private Connection proxy;
+        private volatile long lastUsed;
+        private volatile long borrowedAt;
+        private volatile String borrowerThread;
+        private volatile Throwable borrowTrace;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCacheSize > 0
+                    ? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses)
+                    : null;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        private void checkout() {
+            borrowedAt = System.currentTimeMillis();
+            borrowerThread = Thread.currentThread().getName();
+            borrowTrace = leakDetectionMillis > 0 ? new Throwable("Connection borrowed here") : null;
+            leakReported = false;
+            proxy = newProxy();
+        }
+
+        private Connection newProxy() {
+            final boolean[] logicallyClosed = {false};
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (p, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                if (!logicallyClosed[0]) {
+                                    logicallyClosed[0] = true;
+                                    release(this);
+                                }
+                                return null;
+                            case "isClosed":
+                                return logicallyClosed[0] || physical.isClosed();
+                            case "equals":
+                                return p == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(p);
+                            case "toString":
+                                return "Pooled[" + physical + "]";
+                            default:
+                                if (logicallyClosed[0])
+                                    throw new SQLException("Connection was already returned to " + name);
+                                if (statements != null && method.getName().equals("prepareStatement")) {
+                                    if (args.length == 1)
+                                        return statements.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                                    if (args.length == 2 && args[1] instanceof Integer keys)
+                                        return statements.prepare((String) args[0], keys);
+                                }
+                                try {
+                                    return method.invoke(physical, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                        }
+                    });
+        }
+    }
+}
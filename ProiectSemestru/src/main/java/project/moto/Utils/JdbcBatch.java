@@ -0,0 +1,296 @@
+package project.moto.Utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import project.moto.Domain.Entity;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for bulk writes: a transaction around a unit of work and chunked addBatch/executeBatch loops
+ */
+public final class JdbcBatch {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * Connection of the transaction the current thread runs on each pool
+     */
+    private static final ThreadLocal<Map<ConnectionPool, Connection>> transactions = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Actions waiting for the outermost transaction of the current thread to commit
+     */
+    private static final ThreadLocal<List<Runnable>> afterCommit = new ThreadLocal<>();
+
+    /**
+     * Actions undoing in memory what the transactions of the current thread did, run in reverse order on rollback
+     */
+    private static final ThreadLocal<List<Runnable>> onRollback = new ThreadLocal<>();
+
+    /**
+     * Binds one item to the parameters of a batched statement
+     * @param <T> - type of the bound items
+     */
+    @FunctionalInterface
+    public interface Binder<T> {
+        void bind(PreparedStatement preStmt, T item) throws SQLException;
+    }
+
+    /**
+     * Work executed on a connection inside a transaction
+     * @param <R> - type of the result
+     */
+    @FunctionalInterface
+    public interface SqlWork<R> {
+        R execute(Connection con) throws SQLException;
+    }
+
+    private JdbcBatch() {
+    }
+
+    /**
+     * Runs the work in one transaction on a pooled connection, committing at the end or rolling back on failure.
+     * When the current thread already runs a transaction on the same pool the work joins it instead,
+     * so several bulk operations can be grouped in one commit. While the work runs, {@link JdbcUtils#getConnection}
+     * returns the connection of the transaction on that thread, so reads and single writes are part of it too. On rollback the actions registered with
+     * {@link #onRollback} inside the transaction are run and its {@link #afterCommit} actions are dropped.
+     * @return the result of the work
+     */
+    public static <R> R inTransaction(JdbcUtils dbUtils, SqlWork<R> work) {
+        ConnectionPool pool = dbUtils.getPool();
+        Map<ConnectionPool, Connection> open = transactions.get();
+        Connection joined = open.get(pool);
+        if (joined != null) {
+            try {
+                return work.execute(joined);
+            } catch (SQLException e) {
+                logger.error(e.getMessage());
+                throw new RuntimeException(e);
+            }
+        }
+        R result;
+        List<Runnable> hooks = null;
+        try (Connection con = dbUtils.getConnection()) {
+            boolean oldAutoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            boolean outermost = open.isEmpty();
+            if (outermost) {
+                afterCommit.set(new ArrayList<>());
+                onRollback.set(new ArrayList<>());
+            }
+            int commitMark = afterCommit.get().size();
+            int rollbackMark = onRollback.get().size();
+            open.put(pool, con);
+            try {
+                result = work.execute(con);
+                con.commit();
+                if (outermost)
+                    hooks = afterCommit.get();
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    con.rollback();
+                } catch (SQLException ex) {
+                    logger.error(ex.getMessage());
+                }
+                rolledBack(commitMark, rollbackMark);
+                throw e;
+            } finally {
+                open.remove(pool);
+                if (outermost) {
+                    afterCommit.remove();
+                    onRollback.remove();
+                }
+                con.setAutoCommit(oldAutoCommit);
+            }
+        } catch (SQLException e) {
+            logger.error(e.getMessage());
+            throw new RuntimeException(e);
+        }
+        if (hooks != null) {
+            for (Runnable hook : hooks) {
+                try {
+                    hook.run();
+                } catch (RuntimeException e) {
+                    logger.error("After commit action failed: {}", e.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the action once the transaction the current thread runs is committed, or at once outside a transaction.
+     * The action is dropped if the transaction is rolled back.
+     */
+    public static void afterCommit(Runnable action) {
+        List<Runnable> hooks = afterCommit.get();
+        if (hooks == null)
+            action.run();
+        else
+            hooks.add(action);
+    }
+
+    /**
+     * @return whether the current thread runs a transaction, on any pool
+     */
+    public static boolean isInTransaction() {
+        return afterCommit.get() != null;
+    }
+
+    /**
+     * @return the connection of the transaction the current thread runs on the pool, wrapped so closing it does not
+     * give it back to the pool, or null when there is none
+     */
+    static Connection joinedConnection(ConnectionPool pool) {
+        Connection con = transactions.get().get(pool);
+        if (con == null)
+            return null;
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "equals":
+                            return p == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(p);
+                        default:
+                            try {
+                                return method.invoke(con, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    /**
+     * Runs the action if the transaction the current thread runs is rolled back, to undo a change made in memory.
+     * Outside a transaction the action is dropped.
+     */
+    public static void onRollback(Runnable action) {
+        List<Runnable> hooks = onRollback.get();
+        if (hooks != null)
+            hooks.add(action);
+    }
+
+    /**
+     * Sets the generated ids on the inserted entities. Called inside the work of {@link #inTransaction},
+     * the previous ids are put back if the transaction, or an outer one the work joined, is rolled back,
+     * so the entities never keep ids of rows which do not exist.
+     * @param ids - the generated ids, in the order of the entities
+     */
+    public static void assignIds(List<? extends Entity<Integer>> entities, List<Integer> ids) {
+        List<Integer> previous = new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            previous.add(entities.get(i).getId());
+            entities.get(i).setId(ids.get(i));
+        }
+        onRollback(() -> {
+            for (int i = 0; i < entities.size(); i++)
+                entities.get(i).setId(previous.get(i));
+        });
+    }
+
+    /**
+     * Drops the after commit actions registered since the transaction began and runs its rollback actions
+     */
+    private static void rolledBack(int commitMark, int rollbackMark) {
+        List<Runnable> commits = afterCommit.get();
+        commits.subList(commitMark, commits.size()).clear();
+        List<Runnable> rollbacks = onRollback.get();
+        for (int i = rollbacks.size() - 1; i >= rollbackMark; i--) {
+            try {
+                rollbacks.get(i).run();
+            } catch (RuntimeException e) {
+                logger.error("Rollback action failed: {}", e.getMessage());
+            }
+        }
+        rollbacks.subList(rollbackMark, rollbacks.size()).clear();
+    }
+
+    /**
+     * Executes the statement once per item, sending the items to the database in chunks
+     * @param chunkSize - maximum number of statements sent in one executeBatch call
+     * @return the number of rows affected
+     */
+    public static <T> int execute(Connection con, String sql, Collection<T> items, int chunkSize, Binder<T> binder) throws SQLException {
+        int affected = 0;
+        if (items.isEmpty())
+            return affected;
+        try (PreparedStatement preStmt = con.prepareStatement(sql)) {
+            int pending = 0;
+            for (T item : items) {
+                binder.bind(preStmt, item);
+                preStmt.addBatch();
+                if (++pending == chunkSize) {
+                    affected += count(preStmt.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0)
+                affected += count(preStmt.executeBatch());
+        }
+        logger.trace("Batch {} affected {} rows", sql, affected);
+        return affected;
+    }
+
+    /**
+     * Inserts every item in chunks and collects the generated keys, in the order of the items.
+     * The SQLite driver only reports the last key of a batch; because the batch runs inside one
+     * write transaction the keys of a chunk are consecutive, so the missing ones are derived from it.
+     * @param chunkSize - maximum number of inserts sent in one executeBatch call
+     * @return the generated keys of the inserted rows
+     */
+    public static <T> List<Integer> insert(Connection con, String sql, List<T> items, int chunkSize, Binder<T> binder) throws SQLException {
+        List<Integer> keys = new ArrayList<>(items.size());
+        try (PreparedStatement preStmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int from = 0; from < items.size(); from += chunkSize) {
+                List<T> chunk = items.subList(from, Math.min(items.size(), from + chunkSize));
+                for (T item : chunk) {
+                    binder.bind(preStmt, item);
+                    preStmt.addBatch();
+                }
+                preStmt.executeBatch();
+                List<Integer> chunkKeys = new ArrayList<>(chunk.size());
+                try (ResultSet generatedKeys = preStmt.getGeneratedKeys()) {
+                    while (generatedKeys.next())
+                        chunkKeys.add(generatedKeys.getInt(1));
+                }
+                if (chunkKeys.size() == chunk.size()) {
+                    keys.addAll(chunkKeys);
+                } else if (chunkKeys.size() == 1) {
+                    int last = chunkKeys.get(0);
+                    for (int i = chunk.size() - 1; i >= 0; i--)
+                        keys.add(last - i);
+                } else {
+                    throw new SQLException("Expected " + chunk.size() + " generated keys, got " + chunkKeys.size());
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static int count(int[] results) {
+        int affected = 0;
+        for (int result : results) {
+            if (result > 0)
+                affected += result;
+            else if (result == Statement.SUCCESS_NO_INFO)
+                affected++;
+        }
+        return affected;
+    }
+}
@@ -2,11 +2,23 @@ package project.moto.Utils;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import project.moto.Repository.SortOrder;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 public class JdbcUtils {
@@ -15,13 +27,16 @@ public class JdbcUtils {
 
     private static final Logger logger= LogManager.getLogger();
 
+    /**
+     * One pool per database url, shared by every repository that connects to it
+     */
+    private static final Map<String, ConnectionPool> pools = new ConcurrentHashMap<>();
+
     public JdbcUtils(Properties props){
         jdbcProps=props;
     }
 
-    private  Connection instance=null;
-
-    private Connection getNewConnection(){
+    private Connection getNewConnection() throws SQLException {
         logger.traceEntry();
 
         String url=jdbcProps.getProperty("jdbc.url");
@@ -29,32 +44,306 @@ public class JdbcUtils {
         String pass=jdbcProps.getProperty("jdbc.pass");
         logger.info("trying to connect to database ... {}",url);
         logger.info("user: {}",user);
-        logger.info("pass: {}", pass);
-        Connection con=null;
-        try {
+        boolean sqlite=url!=null && url.startsWith("jdbc:sqlite:");
+        Properties info=new Properties();
+        if (user!=null && pass!=null) {
+            info.setProperty("user",user);
+            info.setProperty("password",pass);
+        }
+        if (sqlite)
+            info.setProperty("transaction_mode",sqliteTransactionMode());
+        Connection con=DriverManager.getConnection(url,info);
+        if (sqlite)
+            applySqlitePragmas(con);
+        return logger.traceExit(con);
+    }
+
+    /**
+     * Transactions opened by this repository write, so by default SQLite takes the write lock when they begin
+     * (BEGIN IMMEDIATE). A transaction that reads before it writes then waits for a concurrent writer
+     * instead of failing with SQLITE_BUSY when it upgrades its read lock. Overridden by jdbc.sqlite.transactionMode.
+     * @return DEFERRED, IMMEDIATE or EXCLUSIVE
+     */
+    private String sqliteTransactionMode(){
+        String mode=jdbcProps.getProperty("jdbc.sqlite.transactionMode");
+        if (mode==null || mode.isBlank())
+            return "IMMEDIATE";
+        mode=mode.trim().toUpperCase();
+        if (!mode.equals("DEFERRED") && !mode.equals("IMMEDIATE") && !mode.equals("EXCLUSIVE")) {
+            logger.error("Invalid value {} for jdbc.sqlite.transactionMode, using IMMEDIATE", mode);
+            return "IMMEDIATE";
+        }
+        return mode;
+    }
 
-            if (user!=null && pass!=null)
-                con= DriverManager.getConnection(url,user,pass);
-            else
-                con=DriverManager.getConnection(url);
+    /**
+     * Applies the PRAGMAs of the profile named by jdbc.sqlite.profile, each one can be overridden
+     * with a jdbc.sqlite.&lt;pragma&gt; property. Without a profile only the overrides are applied.
+     * The values reported back by SQLite are logged.
+     */
+    private void applySqlitePragmas(Connection con) throws SQLException {
+        Map<String,String> pragmas=new LinkedHashMap<>();
+        String profileName=jdbcProps.getProperty("jdbc.sqlite.profile");
+        if (profileName!=null && !profileName.isBlank())
+            pragmas.putAll(SqliteProfile.fromName(profileName).getPragmas());
+        for (String pragma : SqliteProfile.PRAGMAS) {
+            String value=jdbcProps.getProperty("jdbc.sqlite."+pragma);
+            if (value!=null && !value.isBlank())
+                pragmas.put(pragma,value.trim());
+        }
+        if (pragmas.isEmpty())
+            return;
+        StringBuilder active=new StringBuilder();
+        try (Statement stmt=con.createStatement()) {
+            for (Map.Entry<String,String> pragma : pragmas.entrySet()) {
+                if (!pragma.getValue().matches("[A-Za-z0-9_-]+"))
+                    throw new SQLException("Invalid value "+pragma.getValue()+" for PRAGMA "+pragma.getKey());
+                stmt.execute("PRAGMA "+pragma.getKey()+" = "+pragma.getValue());
+                try (ResultSet result=stmt.executeQuery("PRAGMA "+pragma.getKey())) {
+                    active.append(' ').append(pragma.getKey()).append('=').append(result.next() ? result.getString(1) : "?");
+                }
+            }
+        }
+        logger.info("SQLite profile {}:{}",profileName==null ? "none" : profileName,active);
+    }
+
+    private ConnectionPool createPool(){
+        int cores = Runtime.getRuntime().availableProcessors();
+        int minSize = intProperty("jdbc.pool.minSize", 1);
+        int maxSize = intProperty("jdbc.pool.maxSize", Math.max(2, cores));
+        ConnectionPool pool=new ConnectionPool(this::getNewConnection,
+                Math.min(minSize, maxSize),
+                maxSize,
+                intProperty("jdbc.pool.checkoutTimeout", 30000),
+                intProperty("jdbc.pool.validationTimeout", 2),
+                intProperty("jdbc.pool.idleTimeout", 600000),
+                intProperty("jdbc.pool.leakDetectionThreshold", 60000),
+                intProperty("jdbc.statementCacheSize", 32));
+        if (booleanProperty("jdbc.migrate", true))
+            migrate(pool);
+        return pool;
+    }
+
+    /**
+     * Brings the schema of a newly opened database up to date before any repository uses it
+     */
+    private void migrate(ConnectionPool pool){
+        try (Connection con=pool.borrow()) {
+            SchemaMigrator.defaults().migrate(con, booleanProperty("jdbc.migrate.analyze", false));
         } catch (SQLException e) {
             logger.error(e.getMessage());
-            System.out.println("Error getting connection "+e);
+            pool.close();
+            throw new RuntimeException(e);
         }
-        return con;
     }
 
-    public Connection getConnection(){
+    private boolean booleanProperty(String key, boolean defaultValue){
+        String value=jdbcProps.getProperty(key);
+        if (value==null || value.isBlank())
+            return defaultValue;
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    private int intProperty(String key, int defaultValue){
+        String value=jdbcProps.getProperty(key);
+        if (value==null || value.isBlank())
+            return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.error("Invalid value {} for {}, using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * @return the pool serving the configured database url
+     */
+    public ConnectionPool getPool(){
+        return pools.computeIfAbsent(jdbcProps.getProperty("jdbc.url"), url -> createPool());
+    }
+
+    /**
+     * Borrows a connection from the pool of the configured database. Inside {@link JdbcBatch#inTransaction}
+     * the connection of the transaction the current thread runs is returned instead, closing it does not end the transaction.
+     * @return a pooled connection, closing it gives it back to the pool
+     * @throws SQLException if no connection could be obtained within the checkout timeout
+     */
+    public Connection getConnection() throws SQLException {
         logger.traceEntry();
+        ConnectionPool pool=getPool();
+        Connection con=JdbcBatch.joinedConnection(pool);
+        if (con==null)
+            con=pool.borrow();
+        logger.traceExit(con);
+        return con;
+    }
+
+    /**
+     * @return the number of rows a streaming query asks the driver to fetch at once (jdbc.fetchSize)
+     */
+    public int getFetchSize(){
+        return intProperty("jdbc.fetchSize", 500);
+    }
+
+    /**
+     * @return the maximum number of statements sent to the database in one JDBC batch (jdbc.batchSize)
+     */
+    public int getBatchSize(){
+        return Math.max(1, intProperty("jdbc.batchSize", 500));
+    }
+
+    /**
+     * Runs a query and exposes its cursor as a lazily populated Stream.
+     * The borrowed connection stays checked out until the stream is closed or fully consumed,
+     * so callers must use the stream in a try-with-resources block.
+     * @param sql - the query
+     * @param fetchSize - hint for the number of rows fetched from the database at once
+     * @param fetcher - reads the next element from the cursor
+     * @param params - values bound to the placeholders of the query
+     * @return Stream of the elements produced by the fetcher
+     */
+    public <E> Stream<E> streamQuery(String sql, int fetchSize, ResultSetStream.Fetcher<E> fetcher, Object... params){
+        logger.traceEntry("streaming {}", sql);
+        Connection con=null;
+        PreparedStatement preStmt=null;
         try {
-            if (instance==null || instance.isClosed())
-                instance=getNewConnection();
+            con=getConnection();
+            preStmt=con.prepareStatement(sql);
+            preStmt.setFetchSize(fetchSize);
+            bind(preStmt,params);
+            ResultSet result=preStmt.executeQuery();
+            return ResultSetStream.of(con,preStmt,result,fetcher);
+        } catch (SQLException e) {
+            logger.error(e.getMessage());
+            try {
+                if (preStmt!=null)
+                    preStmt.close();
+            } catch (SQLException ex) {
+                logger.error(ex.getMessage());
+            }
+            try {
+                if (con!=null)
+                    con.close();
+            } catch (SQLException ex) {
+                logger.error(ex.getMessage());
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Appends a keyset filter, the ordering and a limit to a query
+     * @param select - the query without WHERE, ORDER BY or LIMIT clauses
+     * @param idColumn - the indexed key the pages are ordered by
+     * @param after - whether the query seeks past a previous key, bound as the first parameter
+     * @param sort - direction of the keys
+     * @return the query, the limit is bound as its last parameter
+     */
+    public static String keysetQuery(String select, String idColumn, boolean after, SortOrder sort){
+        String query=select;
+        if (after)
+            query+=" WHERE "+idColumn+(sort==SortOrder.DESC ? " < ?" : " > ?");
+        return query+" ORDER BY "+idColumn+" "+sort+" LIMIT ?";
+    }
+
+    /**
+     * Reads one page of rows of a table, using {@link #keysetQuery}.
+     * One row more than the limit is read, so the caller can tell whether another page follows.
+     * @param select - the query without WHERE, ORDER BY or LIMIT clauses
+     * @param idColumn - the indexed key the pages are ordered by
+     * @param afterId - key of the last row of the previous page, null for the first page
+     * @param limit - the page size
+     * @param sort - direction of the keys
+     * @param mapper - maps the current row
+     * @return at most limit + 1 mapped rows
+     */
+    public <E> List<E> queryPage(String select, String idColumn, Object afterId, int limit, SortOrder sort,
+                                 ResultSetStream.Fetcher<E> mapper){
+        if (limit<1)
+            throw new IllegalArgumentException("Page limit must be positive");
+        String sql=keysetQuery(select,idColumn,afterId!=null,sort);
+        return afterId!=null ? queryList(sql,mapper,afterId,limit+1) : queryList(sql,mapper,limit+1);
+    }
 
+    /**
+     * Runs a query and maps every row of its result
+     * @param sql - the query
+     * @param mapper - maps the current row
+     * @param params - values bound to the placeholders of the query
+     * @return the mapped rows, in the order of the result
+     */
+    public <E> List<E> queryList(String sql, ResultSetStream.Fetcher<E> mapper, Object... params){
+        List<E> rows=new ArrayList<>();
+        query(sql,mapper,rows::add,params);
+        return rows;
+    }
+
+    /**
+     * Runs a query and maps its first row
+     * @param sql - the query
+     * @param mapper - maps the current row
+     * @param params - values bound to the placeholders of the query
+     * @return the mapped first row, empty if the query returned no rows
+     */
+    public <E> Optional<E> queryOne(String sql, ResultSetStream.Fetcher<E> mapper, Object... params){
+        try (Connection con=getConnection();
+             PreparedStatement preStmt=con.prepareStatement(sql)) {
+            bind(preStmt,params);
+            try (ResultSet result=preStmt.executeQuery()) {
+                return result.next() ? Optional.of(mapper.next(result)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            logger.error(e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Runs a query and hands every mapped row to an action, without collecting the rows
+     * @param sql - the query
+     * @param mapper - maps the current row
+     * @param action - receives the mapped rows, in the order of the result
+     * @param params - values bound to the placeholders of the query
+     */
+    public <E> void query(String sql, ResultSetStream.Fetcher<E> mapper, Consumer<? super E> action, Object... params){
+        try (Connection con=getConnection();
+             PreparedStatement preStmt=con.prepareStatement(sql)) {
+            bind(preStmt,params);
+            try (ResultSet result=preStmt.executeQuery()) {
+                while (result.next())
+                    action.accept(mapper.next(result));
+            }
         } catch (SQLException e) {
             logger.error(e.getMessage());
-            System.out.println("Error DB "+e);
+            throw new RuntimeException(e);
         }
-        logger.traceExit(instance);
-        return instance;
+    }
+
+    private static void bind(PreparedStatement preStmt, Object... params) throws SQLException {
+        for (int i=0;i<params.length;i++)
+            preStmt.setObject(i+1,params[i]);
+    }
+
+    /**
+     * Runs a COUNT query
+     * @param sql - a query returning a single number
+     * @param params - values bound to the placeholders of the query
+     * @return the number returned by the query
+     */
+    public int queryCount(String sql, Object... params){
+        List<Integer> count=queryList(sql,result -> result.getInt(1),params);
+        return count.isEmpty() ? 0 : count.get(0);
+    }
+
+    /**
+     * Closes every connection pool, used on application shutdown
+     */
+    public static void closePools(){
+        pools.values().forEach(pool -> {
+            logger.info("Statement cache hits: {}, misses: {}", pool.getStatementCacheHits(), pool.getStatementCacheMisses());
+            pool.close();
+        });
+        pools.clear();
     }
 }
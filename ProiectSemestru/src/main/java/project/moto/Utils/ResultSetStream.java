@@ -0,0 +1,104 @@
+package project.moto.Utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily maps an open ResultSet to a Stream.
+ * Rows are read from the cursor only when the stream pulls them, so a full table scan keeps
+ * one row (or one aggregate) on the heap at a time. The result set, statement and connection
+ * are released when the stream is closed or when the cursor is exhausted, whichever comes first.
+ */
+public final class ResultSetStream {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * Reads the next element from the cursor
+     * @param <E> - type of the produced elements
+     */
+    @FunctionalInterface
+    public interface Fetcher<E> {
+        /**
+         * @param result - the open cursor
+         * @return the next element, null when the cursor is exhausted
+         */
+        E next(ResultSet result) throws SQLException;
+    }
+
+    private ResultSetStream() {
+    }
+
+    /**
+     * Adapts a row mapper to a fetcher producing one element per row
+     * @param mapper - maps the current row, called after the cursor was advanced
+     */
+    public static <E> Fetcher<E> rows(Fetcher<E> mapper) {
+        return rs -> rs.next() ? mapper.next(rs) : null;
+    }
+
+    /**
+     * Streams the elements produced by the fetcher, which is free to consume several rows per element
+     */
+    public static <E> Stream<E> of(Connection con, PreparedStatement preStmt, ResultSet result, Fetcher<E> fetcher) {
+        Cursor<E> cursor = new Cursor<>(con, preStmt, result, fetcher);
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
+    private static final class Cursor<E> extends Spliterators.AbstractSpliterator<E> {
+        private final Connection con;
+        private final PreparedStatement preStmt;
+        private final ResultSet result;
+        private final Fetcher<E> fetcher;
+        private boolean closed = false;
+
+        private Cursor(Connection con, PreparedStatement preStmt, ResultSet result, Fetcher<E> fetcher) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.con = con;
+            this.preStmt = preStmt;
+            this.result = result;
+            this.fetcher = fetcher;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (closed)
+                return false;
+            E next;
+            try {
+                next = fetcher.next(result);
+            } catch (SQLException e) {
+                logger.error(e.getMessage());
+                close();
+                throw new RuntimeException(e);
+            }
+            if (next == null) {
+                close();
+                return false;
+            }
+            action.accept(next);
+            return true;
+        }
+
+        private void close() {
+            if (closed)
+                return;
+            closed = true;
+            try (con; preStmt; result) {
+                logger.trace("Releasing streaming cursor");
+            } catch (SQLException e) {
+                logger.error(e.getMessage());
+            }
+        }
+    }
+}
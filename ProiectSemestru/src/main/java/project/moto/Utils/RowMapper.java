@@ -0,0 +1,97 @@
+package project.moto.Utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of a result set to entities by column index.
+ * The names of the mapped columns are resolved to indexes once per result set, the rows are then
+ * read with the index based getters, so no column name is looked up per row.
+ * A mapper is immutable and can be shared, the index resolution lives in the fetchers it creates.
+ * @param <E> - type of the mapped entities
+ */
+public final class RowMapper<E> {
+
+    /**
+     * Builds an entity from the current row
+     * @param <E> - type of the mapped entities
+     */
+    @FunctionalInterface
+    public interface Mapping<E> {
+        /**
+         * @param result - cursor positioned on the row
+         * @param columns - index of each mapped column, in the order the columns were given to the mapper
+         */
+        E map(ResultSet result, int[] columns) throws SQLException;
+    }
+
+    private final String[] columns;
+    private final String columnList;
+    private final Mapping<E> mapping;
+
+    private RowMapper(Mapping<E> mapping, String[] columns) {
+        this.mapping = mapping;
+        this.columns = columns.clone();
+        this.columnList = String.join(", ", columns);
+    }
+
+    /**
+     * @param mapping - builds an entity from the indexes of the columns
+     * @param columns - names of the mapped columns
+     */
+    public static <E> RowMapper<E> of(Mapping<E> mapping, String... columns) {
+        return new RowMapper<>(mapping, columns);
+    }
+
+    /**
+     * @return the mapped columns separated by commas, for the select list of a query
+     */
+    public String getColumnList() {
+        return columnList;
+    }
+
+    /**
+     * @return the query selecting the mapped columns of a table
+     */
+    public String select(String table) {
+        return "select " + columnList + " from " + table;
+    }
+
+    /**
+     * Looks up the index of every mapped column in a result set
+     * @throws SQLException if a column is missing from the result set
+     */
+    public int[] resolve(ResultSet result) throws SQLException {
+        int[] indexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++)
+            indexes[i] = result.findColumn(columns[i]);
+        return indexes;
+    }
+
+    /**
+     * Maps the current row of a result set whose column indexes were resolved with {@link #resolve}
+     */
+    public E map(ResultSet result, int[] indexes) throws SQLException {
+        return mapping.map(result, indexes);
+    }
+
+    /**
+     * @return a fetcher mapping the current row, which resolves the column indexes on the first row of every
+     * result set it is given; it keeps that state, so each query needs its own fetcher
+     */
+    public ResultSetStream.Fetcher<E> fetcher() {
+        return new ResultSetStream.Fetcher<>() {
+            private ResultSet resolved;
+            private int[] indexes;
+
+            @Override
+            public E next(ResultSet result) throws SQLException {
+                if (result != resolved) {
+                    indexes = resolve(result);
+                    resolved = result;
+                }
+                return mapping.map(result, indexes);
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package project.moto.Utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Versioned schema migrations.
+ * Every migration is applied once, in version order, inside its own transaction together with the row
+ * that records it in the SchemaVersion table, so a failed migration leaves the schema at the previous version.
+ */
+public class SchemaMigrator {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * A numbered group of DDL statements
+     */
+    public static final class Migration {
+        private final int version;
+        private final String description;
+        private final List<String> statements;
+
+        public Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = List.of(statements);
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private static final List<Migration> DEFAULT_MIGRATIONS = List.of(
+            new Migration(1, "Create tables",
+                    "CREATE TABLE IF NOT EXISTS Team (Name varchar(20) not null, " +
+                            "Id integer not null constraint team_pk primary key autoincrement)",
+                    "CREATE TABLE IF NOT EXISTS Player (Name varchar(20) not null, " +
+                            "Id INTEGER not null constraint Player_pk primary key autoincrement, " +
+                            "Code varchar(20) not null, Team INTEGER constraint Player_Team_Id_fk references Team)",
+                    "CREATE TABLE IF NOT EXISTS Race (Id integer not null constraint Race_pk primary key autoincrement, " +
+                            "NoPlayers integer not null, EngineType integer not null)",
+                    "CREATE TABLE IF NOT EXISTS PlayerRaces (PlayerId integer not null, RaceId integer not null, " +
+                            "constraint PlayerRaces_pk primary key (PlayerId, RaceId))",
+                    "CREATE TABLE IF NOT EXISTS User (Id integer not null constraint User_pk primary key autoincrement, " +
+                            "Username varchar(20) not null, Password varchar(20) not null)"),
+            new Migration(2, "Create indexes for the repository queries",
+                    "CREATE INDEX IF NOT EXISTS Player_Team_index ON Player (Team)",
+                    "CREATE INDEX IF NOT EXISTS Race_EngineType_index ON Race (EngineType)",
+                    "CREATE INDEX IF NOT EXISTS PlayerRaces_RaceId_index ON PlayerRaces (RaceId)",
+                    "CREATE INDEX IF NOT EXISTS User_Username_index ON User (Username)")
+    );
+
+    private final List<Migration> migrations;
+
+    /**
+     * @param migrations - the migrations, versions must be unique
+     */
+    public SchemaMigrator(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).version == sorted.get(i - 1).version)
+                throw new IllegalArgumentException("Duplicate migration version " + sorted.get(i).version);
+        }
+        this.migrations = sorted;
+    }
+
+    /**
+     * @return a migrator for the schema used by the project.moto repositories
+     */
+    public static SchemaMigrator defaults() {
+        return new SchemaMigrator(DEFAULT_MIGRATIONS);
+    }
+
+    /**
+     * Applies the migrations newer than the current schema version
+     * @param con - connection to the database, its auto-commit mode is restored at the end
+     * @param analyze - whether to refresh the query planner statistics with ANALYZE afterwards
+     * @return the number of applied migrations
+     * @throws SQLException if a migration fails, that migration is rolled back
+     */
+    public int migrate(Connection con, boolean analyze) throws SQLException {
+        try (Statement stmt = con.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS SchemaVersion (Version integer not null primary key, " +
+                    "Description varchar(100) not null, AppliedAt integer not null)");
+        }
+        int current = currentVersion(con);
+        int applied = 0;
+        boolean oldAutoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            for (Migration migration : migrations) {
+                if (migration.version <= current)
+                    continue;
+                logger.info("Applying schema migration {}: {}", migration.version, migration.description);
+                try (Statement stmt = con.createStatement();
+                     PreparedStatement record = con.prepareStatement(
+                             "INSERT INTO SchemaVersion (Version, Description, AppliedAt) VALUES (?, ?, ?)")) {
+                    for (String ddl : migration.statements) {
+                        logger.debug("Executing {}", ddl);
+                        stmt.executeUpdate(ddl);
+                    }
+                    record.setInt(1, migration.version);
+                    record.setString(2, migration.description);
+                    record.setLong(3, System.currentTimeMillis());
+                    record.executeUpdate();
+                    con.commit();
+                    applied++;
+                } catch (SQLException e) {
+                    con.rollback();
+                    logger.error("Schema migration {} failed: {}", migration.version, e.getMessage());
+                    throw e;
+                }
+            }
+        } finally {
+            con.setAutoCommit(oldAutoCommit);
+        }
+        if (analyze) {
+            try (Statement stmt = con.createStatement()) {
+                stmt.executeUpdate("ANALYZE");
+            }
+            logger.info("Refreshed query planner statistics");
+        }
+        logger.info("Schema at version {}, {} migrations applied", currentVersion(con), applied);
+        return applied;
+    }
+
+    /**
+     * @return the highest applied migration version, 0 for a database without migrations
+     */
+    public int currentVersion(Connection con) throws SQLException {
+        try (PreparedStatement preStmt = con.prepareStatement("SELECT max(Version) FROM SchemaVersion");
+             ResultSet result = preStmt.executeQuery()) {
+            return result.next() ? result.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package project.moto.Utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Named sets of SQLite PRAGMA settings applied to every new connection, trading durability for write throughput.
+ * <ul>
+ *     <li>DURABLE - every commit is synced to disk, survives power loss</li>
+ *     <li>BALANCED - WAL with syncs at checkpoints only, a commit may be lost on power loss but never corrupts the file</li>
+ *     <li>BULK_LOAD - no syncs at all and large caches, for imports that can be rerun after a crash</li>
+ * </ul>
+ */
+public enum SqliteProfile {
+    DURABLE("WAL", "FULL", -2000, 0, "DEFAULT", 5000),
+    BALANCED("WAL", "NORMAL", -16000, 268435456L, "MEMORY", 5000),
+    BULK_LOAD("WAL", "OFF", -64000, 1073741824L, "MEMORY", 10000);
+
+    /**
+     * Names of the PRAGMAs set by a profile, each can be overridden with a jdbc.sqlite.&lt;name&gt; property
+     */
+    public static final String[] PRAGMAS = {"busy_timeout", "journal_mode", "synchronous", "cache_size", "mmap_size", "temp_store"};
+
+    private final Map<String, String> pragmas;
+
+    /**
+     * @param cacheSize - page cache size, negative values are in KiB
+     * @param mmapSize - bytes of the database file memory mapped, 0 disables mmap
+     */
+    SqliteProfile(String journalMode, String synchronous, int cacheSize, long mmapSize, String tempStore, int busyTimeoutMillis) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("busy_timeout", String.valueOf(busyTimeoutMillis));
+        values.put("journal_mode", journalMode);
+        values.put("synchronous", synchronous);
+        values.put("cache_size", String.valueOf(cacheSize));
+        values.put("mmap_size", String.valueOf(mmapSize));
+        values.put("temp_store", tempStore);
+        this.pragmas = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @return the PRAGMA values of the profile, in the order they are applied
+     */
+    public Map<String, String> getPragmas() {
+        return pragmas;
+    }
+
+    /**
+     * @param name - profile name as written in bd.config, e.g. "bulk-load", case insensitive
+     * @throws IllegalArgumentException if there is no profile with that name
+     */
+    public static SqliteProfile fromName(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
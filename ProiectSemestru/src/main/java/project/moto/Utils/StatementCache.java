@@ -0,0 +1,163 @@
+package project.moto.Utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements attached to one physical connection.
+ * Statements are keyed by their SQL text (and whether generated keys were requested);
+ * closing a statement obtained from the cache only clears its parameters so the next
+ * caller preparing the same SQL on this connection reuses it.
+ * The connection is used by a single thread at a time, so the cache itself is not synchronized.
+ */
+public class StatementCache {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final Connection physical;
+    private final int capacity;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<String, CachedStatement> entries;
+
+    /**
+     * @param physical - the connection the statements are prepared on
+     * @param capacity - maximum number of cached statements, least recently used ones are closed first
+     * @param hits - counter incremented when a cached statement is reused
+     * @param misses - counter incremented when a statement has to be prepared
+     */
+    public StatementCache(Connection physical, int capacity, LongAdder hits, LongAdder misses) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.capacity)
+                    return false;
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a prepared statement for the given sql, reusing the cached one when it is not in use
+     * @param sql - the statement text
+     * @param autoGeneratedKeys - {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}
+     * @return a statement whose close() gives it back to the cache
+     */
+    public PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : "N:" + sql;
+        CachedStatement cached = entries.get(key);
+        if (cached != null && cached.evicted) {
+            entries.remove(key);
+            cached = null;
+        }
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+        misses.increment();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // the cached statement is still open by an outer caller, hand out a private one
+            return statement;
+        }
+        cached = new CachedStatement(statement);
+        cached.inUse = true;
+        entries.put(key, cached);
+        return cached.proxy;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Closes every cached statement, called before the physical connection is closed
+     */
+    public void close() {
+        for (CachedStatement cached : entries.values()) {
+            cached.evict();
+        }
+        entries.clear();
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (p, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                giveBack();
+                                return null;
+                            case "isClosed":
+                                return !inUse || statement.isClosed();
+                            case "equals":
+                                return p == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(p);
+                            default:
+                                if (!inUse)
+                                    throw new SQLException("Statement was already closed");
+                                try {
+                                    return method.invoke(statement, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                        }
+                    });
+        }
+
+        private void giveBack() {
+            if (!inUse)
+                return;
+            inUse = false;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                logger.error("Could not reset cached statement: {}", e.getMessage());
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse)
+                closeQuietly();
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                logger.error(e.getMessage());
+            }
+        }
+    }
+}
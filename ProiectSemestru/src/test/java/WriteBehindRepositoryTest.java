@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import project.moto.Domain.Player;
+import project.moto.Repository.DatasbaseRepository.PlayerDBRepository;
+import project.moto.Repository.WriteBehind.WriteBehindRepository;
+import project.moto.Utils.JdbcUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class WriteBehindRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private Properties props;
+    private PlayerDBRepository players;
+
+    @BeforeEach
+    public void setUp() {
+        props = new Properties();
+        props.setProperty("jdbc.url", "jdbc:sqlite:" + directory.resolve("test.sqlite"));
+        players = new PlayerDBRepository(props);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        JdbcUtils.closePools();
+    }
+
+    private WriteBehindRepository<Integer, Player, PlayerDBRepository> writeBehind() {
+        return new WriteBehindRepository<>(players, props, 100, 60_000, 1000);
+    }
+
+    @Test
+    @DisplayName("Flush writes the queued mutations without waiting for the window")
+    public void testFlush() {
+        try (var buffer = writeBehind()) {
+            List<CompletableFuture<Player>> saved = new ArrayList<>();
+            for (int i = 0; i < 10; i++)
+                saved.add(buffer.save(new Player("Player " + i, "C" + i, 1)));
+            assertEquals(10, buffer.getPendingCount());
+            buffer.flush().join();
+            assertEquals(0, buffer.getPendingCount());
+            for (CompletableFuture<Player> future : saved)
+                assertNotNull(future.join().getId());
+            assertEquals(10, players.findAll().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Updates of the same id are coalesced and a delete drops them")
+    public void testCoalescing() {
+        Player kept = players.save(new Player("Kept", "K", 1)).orElseThrow();
+        Player deleted = players.save(new Player("Deleted", "D", 1)).orElseThrow();
+        try (var buffer = writeBehind()) {
+            List<CompletableFuture<Player>> updates = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Player player = new Player("Kept " + i, "K", 2);
+                player.setId(kept.getId());
+                updates.add(buffer.update(player));
+            }
+            Player update = new Player("Updated", "D", 2);
+            update.setId(deleted.getId());
+            buffer.update(update);
+            buffer.delete(deleted.getId());
+            Player late = new Player("Late", "D", 3);
+            late.setId(deleted.getId());
+            CompletableFuture<Player> dropped = buffer.update(late);
+            assertEquals(2, buffer.getPendingCount());
+            buffer.flush().join();
+            updates.forEach(CompletableFuture::join);
+            CompletionException failure = assertThrows(CompletionException.class, dropped::join);
+            assertTrue(failure.getCause() instanceof IllegalStateException);
+        }
+        assertEquals("Kept 4", players.findOne(kept.getId()).orElseThrow().getName());
+        assertTrue(players.findOne(deleted.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A failed batch is rolled back and leaves no generated ids")
+    public void testFailure() {
+        Player existing = players.save(new Player("Existing", "E", 1)).orElseThrow();
+        try (var buffer = writeBehind()) {
+            Player valid = new Player("Valid", "V", 1);
+            CompletableFuture<Player> ok = buffer.save(valid);
+            Player invalid = new Player(null, "N", 1);
+            invalid.setId(existing.getId());
+            CompletableFuture<Player> failed = buffer.update(invalid);
+            assertThrows(CompletionException.class, () -> buffer.flush().join());
+            assertThrows(CompletionException.class, ok::join);
+            assertThrows(CompletionException.class, failed::join);
+            assertNull(valid.getId());
+            assertEquals(1, players.findAll().size());
+            assertEquals("Existing", players.findOne(existing.getId()).orElseThrow().getName());
+
+            buffer.save(valid);
+            buffer.flush().join();
+            assertNotNull(valid.getId());
+            assertEquals("Valid", players.findOne(valid.getId()).orElseThrow().getName());
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package project.lab3;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Imports cars from a CSV file with the columns manufacturer,model,year.
+ * The file is read through a FileChannel into one fixed size buffer and the rows are parsed straight
+ * from its bytes, only the manufacturer and the model become Strings. The cars are added in chunks,
+ * one transaction per chunk, and the progress is logged after every chunk.
+ * Fields may be quoted with ", a quote inside a quoted field is written as "". Line breaks inside fields are not supported.
+ */
+public class CarCsvImporter {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    public static final int DEFAULT_CHUNK_SIZE = 5000;
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final CarRepository repo;
+    private final int chunkSize;
+    private final int bufferSize;
+
+    public CarCsvImporter(CarRepository repo) {
+        this(repo, DEFAULT_CHUNK_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param chunkSize - number of cars added in one transaction
+     * @param bufferSize - size of the read buffer, the longest line of the file must fit in it
+     */
+    public CarCsvImporter(CarRepository repo, int chunkSize, int bufferSize) {
+        if (chunkSize < 1 || bufferSize < 16)
+            throw new IllegalArgumentException("Invalid chunk size " + chunkSize + " or buffer size " + bufferSize);
+        this.repo = repo;
+        this.chunkSize = chunkSize;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Imports every row of the file, empty lines are skipped
+     * @param header - whether the first line holds the column names
+     * @return the number of imported cars and the import speed
+     * @throws IOException if the file cannot be read or a line does not fit in the buffer
+     * @throws IllegalArgumentException if a row is not a valid car, the chunks before it stay imported
+     */
+    public Result importFile(Path file, boolean header) throws IOException {
+        logger.traceEntry("importing {}", file);
+        long start = System.nanoTime();
+        long imported = 0;
+        long line = 0;
+        List<Car> chunk = new ArrayList<>(chunkSize);
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        byte[] bytes = buffer.array();
+        RowParser parser = new RowParser(bytes);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            boolean first = true;
+            boolean eof = false;
+            while (!eof) {
+                eof = channel.read(buffer) < 0;
+                int limit = buffer.position();
+                int from = 0;
+                if (first && limit >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF)
+                    from = 3;
+                int end;
+                while ((end = lineEnd(bytes, from, limit)) >= 0 || (eof && from < limit)) {
+                    if (end < 0)
+                        end = limit;
+                    line++;
+                    int to = end > from && bytes[end - 1] == '\r' ? end - 1 : end;
+                    if (!(first && header) && to > from) {
+                        chunk.add(parser.parse(from, to, line));
+                        if (chunk.size() == chunkSize) {
+                            imported += flush(chunk);
+                            logProgress(file, imported, start);
+                        }
+                    }
+                    first = false;
+                    from = end + 1;
+                }
+                if (!eof) {
+                    int remaining = limit - from;
+                    if (remaining == bytes.length)
+                        throw new IOException("Line " + (line + 1) + " of " + file + " is longer than " + bytes.length + " bytes");
+                    System.arraycopy(bytes, from, bytes, 0, remaining);
+                    buffer.position(remaining);
+                }
+            }
+        }
+        imported += flush(chunk);
+        Result result = new Result(imported, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Imported {} cars from {} in {} ms, {} rows/s", imported, file, result.getElapsedMillis(), result.getRowsPerSecond());
+        logger.traceExit(result);
+        return result;
+    }
+
+    private int flush(List<Car> chunk) {
+        if (chunk.isEmpty())
+            return 0;
+        int added = repo.addAll(chunk);
+        chunk.clear();
+        return added;
+    }
+
+    private static void logProgress(Path file, long imported, long start) {
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Imported {} cars from {}, {} rows/s", imported, file, imported * 1000 / millis);
+    }
+
+    private static int lineEnd(byte[] bytes, int from, int limit) {
+        for (int i = from; i < limit; i++)
+            if (bytes[i] == '\n')
+                return i;
+        return -1;
+    }
+
+    /**
+     * Reads the fields of one line directly from the bytes of the buffer
+     */
+    private static final class RowParser {
+        private final byte[] bytes;
+        private byte[] scratch = new byte[64];
+        private int pos;
+        private int to;
+        private long line;
+
+        private RowParser(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private Car parse(int from, int to, long line) {
+            this.pos = from;
+            this.to = to;
+            this.line = line;
+            String manufacturer = nextString();
+            String model = nextString();
+            int year = nextInt();
+            if (pos <= to)
+                throw invalid("more than 3 fields");
+            return new Car(manufacturer, model, year);
+        }
+
+        private String nextString() {
+            if (pos > to)
+                throw invalid("expected 3 fields");
+            skipSpaces();
+            if (pos < to && bytes[pos] == '"')
+                return quoted();
+            int start = pos;
+            int end = delimiter();
+            while (end > start && bytes[end - 1] == ' ')
+                end--;
+            return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        private String quoted() {
+            int length = 0;
+            int i = pos + 1;
+            while (true) {
+                if (i >= to)
+                    throw invalid("unterminated quoted field");
+                byte b = bytes[i++];
+                if (b == '"') {
+                    if (i < to && bytes[i] == '"')
+                        i++;
+                    else
+                        break;
+                }
+                if (length == scratch.length)
+                    scratch = Arrays.copyOf(scratch, length * 2);
+                scratch[length++] = b;
+            }
+            pos = i;
+            skipSpaces();
+            if (pos < to && bytes[pos] != ',')
+                throw invalid("text after a quoted field");
+            pos++;
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int nextInt() {
+            if (pos > to)
+                throw invalid("expected 3 fields");
+            skipSpaces();
+            int start = pos;
+            int end = delimiter();
+            while (end > start && bytes[end - 1] == ' ')
+                end--;
+            if (end == start || end - start > 9)
+                throw invalid("invalid year");
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                int digit = bytes[i] - '0';
+                if (digit < 0 || digit > 9)
+                    throw invalid("invalid year");
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        /**
+         * Moves past the next comma, or past the end of the line
+         * @return the end of the current field
+         */
+        private int delimiter() {
+            int i = pos;
+            while (i < to && bytes[i] != ',')
+                i++;
+            pos = i + 1;
+            return i;
+        }
+
+        private void skipSpaces() {
+            while (pos < to && bytes[pos] == ' ')
+                pos++;
+        }
+
+        private IllegalArgumentException invalid(String reason) {
+            return new IllegalArgumentException("Invalid car on line " + line + ": " + reason);
+        }
+    }
+
+    /**
+     * Outcome of an import
+     */
+    public static class Result {
+        private final long rows;
+        private final long elapsedMillis;
+
+        public Result(long rows, long elapsedMillis) {
+            this.rows = rows;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public long getRowsPerSecond() {
+            return rows * 1000 / Math.max(1, elapsedMillis);
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "rows=" + rows +
+                    ", elapsedMillis=" + elapsedMillis +
+                    ", rowsPerSecond=" + getRowsPerSecond() +
+                    '}';
+        }
+    }
+}
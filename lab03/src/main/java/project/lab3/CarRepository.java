@@ -1,8 +1,15 @@
 package project.lab3;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CarRepository extends Repository<Integer,Car> {
     List<Car> findByManufacturer(String manufacturer);
     List<Car> findBetweenYears(int min, int max);
+
+    /**
+     * Adds all the cars in one transaction
+     * @return the number of added cars
+     */
+    int addAll(Collection<Car> cars);
 }
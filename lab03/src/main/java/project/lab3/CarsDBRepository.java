@@ -4,7 +4,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.sql.*;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
 
@@ -16,6 +16,12 @@ public class CarsDBRepository implements CarRepository{
 
     private static final Logger logger= LogManager.getLogger();
 
+    private static final RowMapper<Car> CARS = new RowMapper<>((result, columns) -> {
+        Car car = new Car(result.getString(columns[1]), result.getString(columns[2]), result.getInt(columns[3]));
+        car.setId(result.getInt(columns[0]));
+        return car;
+    }, "id", "manufacturer", "model", "year");
+
     public CarsDBRepository(Properties props) {
         logger.info("Initializing CarsDBRepository with properties: {} ",props);
         dbUtils=new JdbcUtils(props);
@@ -24,25 +30,7 @@ public class CarsDBRepository implements CarRepository{
     @Override
     public List<Car> findByManufacturer(String manufacturerN) {
         logger.traceEntry();
-        Connection con = dbUtils.getConnection();
-        List<Car> cars = new ArrayList<>();
-        try (PreparedStatement preStmt = con.prepareStatement("SELECT * FROM Masini WHERE manufacturer = ?")) {
-            preStmt.setString(1, manufacturerN);
-            try (ResultSet result = preStmt.executeQuery()) {
-                while (result.next()) {
-                    int id = result.getInt("id");
-                    String manufacturer = result.getString("manufacturer");
-                    String model = result.getString("model");
-                    int year = result.getInt("year");
-                    Car car = new Car(manufacturer, model, year);
-                    car.setId(id);
-                    cars.add(car);
-                }
-            }
-        } catch (SQLException e) {
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
+        List<Car> cars = findCars(CARS.select("Masini") + " WHERE manufacturer = ?", manufacturerN);
         logger.traceExit(cars);
         return cars;
     }
@@ -51,26 +39,7 @@ public class CarsDBRepository implements CarRepository{
     @Override
     public List<Car> findBetweenYears(int min, int max) {
         logger.traceEntry();
-        Connection con = dbUtils.getConnection();
-        List<Car> cars = new ArrayList<>();
-        try (PreparedStatement preStmt = con.prepareStatement("SELECT * FROM Masini WHERE year BETWEEN ? AND ?")) {
-            preStmt.setInt(1, min);
-            preStmt.setInt(2, max);
-            try (ResultSet result = preStmt.executeQuery()) {
-                while (result.next()) {
-                    int id = result.getInt("id");
-                    String manufacturer = result.getString("manufacturer");
-                    String model = result.getString("model");
-                    int year = result.getInt("year");
-                    Car car = new Car(manufacturer, model, year);
-                    car.setId(id);
-                    cars.add(car);
-                }
-            }
-        } catch (SQLException e) {
-            logger.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
+        List<Car> cars = findCars(CARS.select("Masini") + " WHERE year BETWEEN ? AND ?", min, max);
         logger.traceExit(cars);
         return cars;
     }
@@ -92,6 +61,38 @@ public class CarsDBRepository implements CarRepository{
         logger.traceExit();
     }
 
+    @Override
+    public int addAll(Collection<Car> cars) {
+        logger.traceEntry("saving {} cars", cars.size());
+        Connection con = dbUtils.getConnection();
+        int added = 0;
+        try {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (PreparedStatement preStmt = con.prepareStatement("insert into Masini (manufacturer,model,year) values (?,?,?)")) {
+                for (Car car : cars) {
+                    preStmt.setString(1, car.getManufacturer());
+                    preStmt.setString(2, car.getModel());
+                    preStmt.setInt(3, car.getYear());
+                    preStmt.addBatch();
+                }
+                for (int result : preStmt.executeBatch())
+                    added += result == Statement.SUCCESS_NO_INFO ? 1 : Math.max(result, 0);
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            logger.error(e.getMessage());
+            throw new RuntimeException(e);
+        }
+        logger.traceExit(added);
+        return added;
+    }
+
     @Override
     public void update(Integer integer, Car elem) {
         logger.traceEntry();
@@ -112,27 +113,23 @@ public class CarsDBRepository implements CarRepository{
 
     @Override
     public Iterable<Car> findAll() {
-         logger.traceEntry();
-         Connection con = dbUtils.getConnection();
-         List<Car> cars=new ArrayList<>();
-         try(PreparedStatement preStmt = con.prepareStatement("select * from Masini")){
-             try(ResultSet result = preStmt.executeQuery()){
-                 while(result.next()){
-                     int id = result.getInt("id");
-                     String manufacturer = result.getString("manufacturer");
-                     String model = result.getString("model");
-                     int year = result.getInt("year");
-                     Car car = new Car(manufacturer, model, year);
-                     car.setId(id);
-                     cars.add(car);
-                 }
-             }
-         } catch (SQLException e) {
-             logger.error(e.getMessage());
-             throw new RuntimeException(e);
-         }
+        logger.traceEntry();
+        List<Car> cars = findCars(CARS.select("Masini"));
         logger.traceExit(cars);
         return cars;
+    }
 
+    private List<Car> findCars(String sql, Object... params) {
+        Connection con = dbUtils.getConnection();
+        try (PreparedStatement preStmt = con.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++)
+                preStmt.setObject(i + 1, params[i]);
+            try (ResultSet result = preStmt.executeQuery()) {
+                return CARS.mapAll(result);
+            }
+        } catch (SQLException e) {
+            logger.error(e.getMessage());
+            throw new RuntimeException(e);
+        }
     }
 }
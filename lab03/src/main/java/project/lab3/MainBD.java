@@ -2,6 +2,7 @@ package project.lab3;
 
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Properties;
 
 public class MainBD {
@@ -15,6 +16,14 @@ public class MainBD {
         }
 
         CarRepository carRepo=new CarsDBRepository(props);
+        if (args.length>0) {
+            try {
+                System.out.println("Importat: "+new CarCsvImporter(carRepo).importFile(Path.of(args[0]), true));
+            } catch (IOException e) {
+                System.out.println("Cannot import "+args[0]+" "+e);
+            }
+            return;
+        }
         carRepo.add(new Car("Audi","A4", 2015));
         System.out.println("Toate masinile din db");
         for(Car car:carRepo.findAll())
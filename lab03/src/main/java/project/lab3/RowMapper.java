@@ -0,0 +1,65 @@
+package project.lab3;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps rows of a result set to entities by column index.
+ * The names of the mapped columns are resolved to indexes once per result set,
+ * the rows are then read with the index based getters.
+ * @param <E> - type of the mapped entities
+ */
+public class RowMapper<E> {
+
+    /**
+     * Builds an entity from the current row
+     * @param <E> - type of the mapped entities
+     */
+    @FunctionalInterface
+    public interface Mapping<E> {
+        /**
+         * @param result - cursor positioned on the row
+         * @param columns - index of each mapped column, in the order the columns were given to the mapper
+         */
+        E map(ResultSet result, int[] columns) throws SQLException;
+    }
+
+    private final String[] columns;
+    private final Mapping<E> mapping;
+
+    public RowMapper(Mapping<E> mapping, String... columns) {
+        this.mapping = mapping;
+        this.columns = columns.clone();
+    }
+
+    /**
+     * @return the query selecting the mapped columns of a table
+     */
+    public String select(String table) {
+        return "SELECT " + String.join(", ", columns) + " FROM " + table;
+    }
+
+    /**
+     * Maps every remaining row of the result set
+     * @return the mapped rows, in the order of the result
+     */
+    public List<E> mapAll(ResultSet result) throws SQLException {
+        List<E> rows = new ArrayList<>();
+        int[] indexes = null;
+        while (result.next()) {
+            if (indexes == null)
+                indexes = resolve(result);
+            rows.add(mapping.map(result, indexes));
+        }
+        return rows;
+    }
+
+    private int[] resolve(ResultSet result) throws SQLException {
+        int[] indexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++)
+            indexes[i] = result.findColumn(columns[i]);
+        return indexes;
+    }
+}